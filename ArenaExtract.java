@@ -0,0 +1,68 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * ArenaExtract consists of variants of the Extract methods that run over a
+ * TweetArena, reading timestamps from its primitive arrays and scanning
+ * mentions on its UTF-8 bytes. Each method returns what the corresponding
+ * Extract method returns for arena.tweets().
+ */
+public class ArenaExtract {
+
+    private ArenaExtract() {
+        // static methods only
+    }
+
+    /**
+     * Get the time period spanned by tweets.
+     * 
+     * @param arena
+     *            tweets to examine
+     * @return a minimum-length time interval that contains the timestamp of
+     *         every tweet in the arena, as for Extract.getTimespan
+     */
+    public static Timespan getTimespan(TweetArena arena) {
+        if (arena.size() == 0) {
+            Instant now = Instant.now();
+            return new Timespan(now, now);
+        }
+        int earliest = 0;
+        int latest = 0;
+        for (int index = 1; index < arena.size(); index++) {
+            if (compare(arena, index, earliest) < 0) {
+                earliest = index;
+            }
+            if (compare(arena, index, latest) > 0) {
+                latest = index;
+            }
+        }
+        return new Timespan(arena.timestamp(earliest), arena.timestamp(latest));
+    }
+
+    private static int compare(TweetArena arena, int a, int b) {
+        int bySecond = Long.compare(arena.epochSecond(a), arena.epochSecond(b));
+        return bySecond != 0 ? bySecond : Integer.compare(arena.nano(a), arena.nano(b));
+    }
+
+    /**
+     * Get usernames mentioned in the tweets of an arena.
+     * 
+     * @param arena
+     *            tweets to examine
+     * @return the set of usernames who are mentioned in the text of the
+     *         tweets, as for Extract.getMentionedUsers
+     */
+    public static Set<String> getMentionedUsers(TweetArena arena) {
+        UsernameTable mentionedUsers = new UsernameTable();
+        MentionScanner.ByteSink sink = mentionedUsers::intern;
+        for (int index = 0; index < arena.size(); index++) {
+            arena.scanMentions(index, sink);
+        }
+        return mentionedUsers.toSet();
+    }
+}
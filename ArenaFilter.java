@@ -0,0 +1,90 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * ArenaFilter consists of variants of the Filter methods that run over a
+ * TweetArena, comparing authors and scanning words on the arena's UTF-8 bytes
+ * without building Tweet or String objects. Authors or texts with non-ASCII
+ * characters fall back to decoding, since their case-insensitive forms may
+ * include ASCII letters; writtenBy decodes each distinct author at most once
+ * per call, not once per tweet.
+ * 
+ * For each method, result.toList(arena.tweets()) equals the corresponding
+ * Filter method's result on arena.tweets().
+ */
+public class ArenaFilter {
+
+    private ArenaFilter() {
+        // static methods only
+    }
+
+    /**
+     * Find tweets written by a particular user.
+     * 
+     * @param arena
+     *            tweets to search
+     * @param username
+     *            Twitter username, as for Filter.writtenBy
+     * @return positions in arena of all and only the tweets whose author is
+     *         username
+     */
+    public static TweetBitmap writtenBy(TweetArena arena, String username) {
+        byte[] asciiUsername = new byte[username.length()];
+        for (int i = 0; i < asciiUsername.length; i++) {
+            char c = username.charAt(i);
+            if (c >= 0x80) {
+                asciiUsername = null;
+                break;
+            }
+            asciiUsername[i] = (byte) MentionScanner.fold(c);
+        }
+        boolean[] named = arena.authorsNamed(username, asciiUsername);
+        return TweetBitmap.matching(arena.size(), index -> named[arena.authorId(index)]);
+    }
+
+    /**
+     * Find tweets that were sent during a particular timespan.
+     * 
+     * @param arena
+     *            tweets to search
+     * @param timespan
+     *            timespan
+     * @return positions in arena of all and only the tweets sent during the
+     *         timespan
+     */
+    public static TweetBitmap inTimespan(TweetArena arena, Timespan timespan) {
+        Instant start = timespan.getStart();
+        Instant end = timespan.getEnd();
+        long startSecond = start.getEpochSecond();
+        int startNano = start.getNano();
+        long endSecond = end.getEpochSecond();
+        int endNano = end.getNano();
+        return TweetBitmap.matching(arena.size(), index -> {
+            long second = arena.epochSecond(index);
+            int nano = arena.nano(index);
+            boolean afterStart = second > startSecond || (second == startSecond && nano >= startNano);
+            boolean beforeEnd = second < endSecond || (second == endSecond && nano <= endNano);
+            return afterStart && beforeEnd;
+        });
+    }
+
+    /**
+     * Find tweets that contain certain words.
+     * 
+     * @param arena
+     *            tweets to search
+     * @param words
+     *            a list of words, as for Filter.containing
+     * @return positions in arena of all and only the tweets that include at
+     *         least one of the words, as Filter.containing compares them
+     */
+    public static TweetBitmap containing(TweetArena arena, List<String> words) {
+        KeywordMatcher matcher = KeywordMatcher.forWords(words);
+        return TweetBitmap.matching(arena.size(), index -> arena.textMatches(index, matcher));
+    }
+}
@@ -0,0 +1,138 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * AuthorIndex groups a growing list of tweets by author.
+ * 
+ * Authors are keyed by their case-folded username, interned once per distinct
+ * author, so writtenBy answers Filter.writtenBy queries in time proportional
+ * to the size of the result. Tweets may be added as they arrive.
+ * 
+ * Not safe for use by multiple threads.
+ */
+public class AuthorIndex {
+
+    private static final int[] NO_POSTINGS = new int[0];
+
+    private final List<Tweet> tweets = new ArrayList<>();
+    private final UsernameTable authors = new UsernameTable();
+    // postings[id][0, counts[id]) are the ascending positions of author id's tweets
+    private int[][] postings = new int[16][];
+    private int[] counts = new int[16];
+
+    /**
+     * Make an empty index.
+     */
+    public AuthorIndex() {
+    }
+
+    /**
+     * Make an index of a list of tweets.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this
+     *            constructor
+     */
+    public AuthorIndex(List<Tweet> tweets) {
+        for (Tweet tweet : tweets) {
+            add(tweet);
+        }
+    }
+
+    /**
+     * Append a tweet to the index.
+     * 
+     * @param tweet
+     *            a tweet whose id differs from every tweet already added
+     */
+    public void add(Tweet tweet) {
+        String author = tweet.getAuthor();
+        int id = authors.intern(author, 0, author.length());
+        if (id == postings.length) {
+            postings = Arrays.copyOf(postings, id * 2);
+            counts = Arrays.copyOf(counts, id * 2);
+        }
+        int[] list = postings[id];
+        if (list == null) {
+            list = new int[2];
+            postings[id] = list;
+        } else if (counts[id] == list.length) {
+            list = Arrays.copyOf(list, list.length * 2);
+            postings[id] = list;
+        }
+        list[counts[id]++] = tweets.size();
+        tweets.add(tweet);
+    }
+
+    /**
+     * @return the indexed tweets, in the order they were added; unmodifiable
+     *         view that reflects later additions
+     */
+    public List<Tweet> tweets() {
+        return Collections.unmodifiableList(tweets);
+    }
+
+    /**
+     * @return number of distinct authors, ignoring case
+     */
+    public int authorCount() {
+        return authors.size();
+    }
+
+    /**
+     * Find tweets written by a particular user.
+     * 
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @return the same list Filter.writtenBy(tweets(), username) returns: all
+     *         and only the indexed tweets whose author is username, ignoring
+     *         case, in the order they were added.
+     */
+    public List<Tweet> writtenBy(String username) {
+        int id = lookup(username);
+        if (id < 0) {
+            return new ArrayList<>();
+        }
+        int count = counts[id];
+        int[] list = postings[id];
+        List<Tweet> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(tweets.get(list[i]));
+        }
+        return result;
+    }
+
+    /**
+     * @param username
+     *            Twitter username
+     * @return ascending positions in tweets() of username's tweets; a fresh
+     *         array the caller may modify
+     */
+    int[] positionsWrittenBy(String username) {
+        int id = lookup(username);
+        return id < 0 ? NO_POSTINGS.clone() : Arrays.copyOf(postings[id], counts[id]);
+    }
+
+    /**
+     * @param username
+     *            Twitter username
+     * @return number of indexed tweets by username, ignoring case
+     */
+    public int count(String username) {
+        int id = lookup(username);
+        return id < 0 ? 0 : counts[id];
+    }
+
+    // id of username if it has written any tweet, else -1
+    private int lookup(String username) {
+        return authors.find(username, 0, username.length());
+    }
+}
@@ -0,0 +1,65 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class AuthorIndexTest {
+
+    /*
+     * Testing strategy for AuthorIndex:
+     * 
+     * Partition as follows:
+     * - index: empty, built from a list, grown by add
+     * - username: unknown, known, known in a different case
+     * - author with one tweet, many tweets interleaved with other authors
+     * Differential: randomized author mixes compared against Filter.writtenBy.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d1);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "@john hello", d1);
+
+    @Test
+    public void testEmptyIndex() {
+        AuthorIndex index = new AuthorIndex();
+        assertTrue("expected empty list", index.writtenBy("alyssa").isEmpty());
+        assertEquals("expected no authors", 0, index.authorCount());
+    }
+
+    @Test
+    public void testCaseInsensitiveInAddOrder() {
+        AuthorIndex index = new AuthorIndex(Arrays.asList(tweet1, tweet2));
+        index.add(tweet3);
+        assertEquals("expected tweets in order", Arrays.asList(tweet1, tweet3), index.writtenBy("ALYSSA"));
+        assertEquals("expected two authors", 2, index.authorCount());
+        assertTrue("expected unknown author to have no tweets", index.writtenBy("nonexistentAuthor").isEmpty());
+        assertEquals("expected lookup not to intern", 2, index.authorCount());
+    }
+
+    @Test
+    public void testRandomizedAgainstFilter() {
+        String[] authors = { "alyssa", "ALYSSA", "bbitdiddle", "BBitDiddle", "ben-b", "x_1" };
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        AuthorIndex index = new AuthorIndex();
+        for (int id = 0; id < 500; id++) {
+            Tweet tweet = new Tweet(id, authors[random.nextInt(authors.length)], "tweet", d1);
+            tweets.add(tweet);
+            index.add(tweet);
+            String username = authors[random.nextInt(authors.length)];
+            assertEquals("expected Filter.writtenBy result", Filter.writtenBy(tweets, username), index.writtenBy(username));
+        }
+    }
+}
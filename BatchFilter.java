@@ -0,0 +1,230 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * BatchFilter runs many TweetQuery conjunctions over a list of tweets in a
+ * single scan.
+ * 
+ * The queries are compiled into routing tables: one from each case-folded
+ * author to the queries requiring it, one from each lowercased word to the
+ * queries containing it, and one from each elementary time interval between
+ * timespan endpoints to the queries whose timespans cover it. Each tweet is
+ * then tokenized and case-folded once, looked up in each table, and appended
+ * to every query whose predicates it all satisfies. The cost per tweet is
+ * proportional to its length plus the number of queries that have at least
+ * one predicate it satisfies, for example every query whose timespan covers
+ * it, even if another of their predicates then fails. Queries none of whose
+ * predicates the tweet satisfies cost nothing for it, so a batch of queries
+ * with selective predicates costs about one scan whatever its size.
+ * 
+ * Immutable, so safe for use by multiple threads once constructed.
+ */
+public class BatchFilter {
+
+    private static final int[] NONE = new int[0];
+    // flag in a hit count recording that the tweet already satisfied the query's words
+    private static final int WORD_BIT = 1 << 30;
+
+    private final List<TweetQuery> queries;
+    // number of predicates each query has, 0 to 3
+    private final int[] required;
+    // queries with no predicates, which match every tweet
+    private final int[] unconditional;
+
+    private final UsernameTable authors = new UsernameTable();
+    private final int[][] byAuthor;
+    private final Map<String, int[]> byWord = new HashMap<>();
+    // time segment i is [boundaries[i], boundaries[i + 1]); bySegment[i + 1] are the queries covering it
+    private final Instant[] boundaries;
+    private final int[][] bySegment;
+
+    /**
+     * Compile a batch of queries.
+     * 
+     * @param queries
+     *            queries to run together; not modified
+     */
+    public BatchFilter(List<TweetQuery> queries) {
+        this.queries = List.copyOf(queries);
+        int count = this.queries.size();
+        required = new int[count];
+
+        List<Integer> matchAll = new ArrayList<>();
+        List<List<Integer>> authorQueries = new ArrayList<>();
+        Map<String, List<Integer>> wordQueries = new HashMap<>();
+        TreeSet<Instant> edges = new TreeSet<>();
+        for (int q = 0; q < count; q++) {
+            TweetQuery query = this.queries.get(q);
+            if (query.author().isPresent()) {
+                required[q]++;
+                String author = query.author().get();
+                int id = authors.intern(author, 0, author.length());
+                if (id == authorQueries.size()) {
+                    authorQueries.add(new ArrayList<>());
+                }
+                authorQueries.get(id).add(q);
+            }
+            if (query.timespan().isPresent()) {
+                required[q]++;
+                Timespan timespan = query.timespan().get();
+                edges.add(timespan.getStart());
+                if (!timespan.getEnd().equals(Instant.MAX)) {
+                    edges.add(timespan.getEnd().plusNanos(1));
+                }
+            }
+            if (query.words().isPresent()) {
+                required[q]++;
+                for (String word : query.words().get()) {
+                    List<Integer> list = wordQueries.computeIfAbsent(Tokenizer.normalize(word), w -> new ArrayList<>());
+                    // a query lists each word once, however often it repeats it
+                    if (list.isEmpty() || list.get(list.size() - 1) != q) {
+                        list.add(q);
+                    }
+                }
+            }
+            if (required[q] == 0) {
+                matchAll.add(q);
+            }
+        }
+        unconditional = toArray(matchAll);
+        byAuthor = new int[authorQueries.size()][];
+        for (int id = 0; id < byAuthor.length; id++) {
+            byAuthor[id] = toArray(authorQueries.get(id));
+        }
+        for (Map.Entry<String, List<Integer>> entry : wordQueries.entrySet()) {
+            byWord.put(entry.getKey(), toArray(entry.getValue()));
+        }
+
+        boundaries = edges.toArray(new Instant[0]);
+        List<List<Integer>> segments = new ArrayList<>();
+        for (int i = 0; i <= boundaries.length; i++) {
+            segments.add(new ArrayList<>());
+        }
+        for (int q = 0; q < count; q++) {
+            if (this.queries.get(q).timespan().isPresent()) {
+                Timespan timespan = this.queries.get(q).timespan().get();
+                int first = Arrays.binarySearch(boundaries, timespan.getStart());
+                // a timespan ending at Instant.MAX is open above: it covers the last segment
+                int last = timespan.getEnd().equals(Instant.MAX)
+                        ? boundaries.length
+                        : Arrays.binarySearch(boundaries, timespan.getEnd().plusNanos(1));
+                for (int segment = first; segment < last; segment++) {
+                    segments.get(segment + 1).add(q);
+                }
+            }
+        }
+        bySegment = new int[segments.size()][];
+        for (int i = 0; i < bySegment.length; i++) {
+            bySegment[i] = toArray(segments.get(i));
+        }
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        if (list.isEmpty()) {
+            return NONE;
+        }
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * @return the queries, in the order results are returned; unmodifiable
+     */
+    public List<TweetQuery> queries() {
+        return queries;
+    }
+
+    /**
+     * Run every query over a list of tweets in one scan.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @return one list per query, in the order of queries(): all and only the
+     *         tweets that satisfy that query, in the same order as in the
+     *         input list
+     */
+    public List<List<Tweet>> run(List<Tweet> tweets) {
+        int count = queries.size();
+        List<List<Tweet>> results = new ArrayList<>(count);
+        for (int q = 0; q < count; q++) {
+            results.add(new ArrayList<>());
+        }
+        // hits[q] counts q's satisfied predicates for the tweet numbered stamp[q]
+        int[] hits = new int[count];
+        int[] stamp = new int[count];
+        Arrays.fill(stamp, -1);
+
+        int position = 0;
+        for (Tweet tweet : tweets) {
+            for (int q : unconditional) {
+                results.get(q).add(tweet);
+            }
+
+            String author = tweet.getAuthor();
+            int authorId = authors.find(author, 0, author.length());
+            if (authorId >= 0) {
+                hit(byAuthor[authorId], position, tweet, hits, stamp, results);
+            }
+            hit(bySegment[segment(tweet.getTimestamp())], position, tweet, hits, stamp, results);
+            // words last, since hit() compares whole counts without masking WORD_BIT
+            if (!byWord.isEmpty()) {
+                for (String word : Tokenizer.words(tweet.getText())) {
+                    int[] wordQueries = byWord.get(word);
+                    if (wordQueries != null) {
+                        hitOnce(wordQueries, position, tweet, hits, stamp, results);
+                    }
+                }
+            }
+            position++;
+        }
+        return results;
+    }
+
+    // index into bySegment of the segment containing timestamp
+    private int segment(Instant timestamp) {
+        int i = Arrays.binarySearch(boundaries, timestamp);
+        // segment k + 1 starts at boundaries[k]; before boundaries[0] is segment 0
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    private void hit(int[] satisfied, int position, Tweet tweet, int[] hits, int[] stamp, List<List<Tweet>> results) {
+        for (int q : satisfied) {
+            if (stamp[q] != position) {
+                stamp[q] = position;
+                hits[q] = 0;
+            }
+            if (++hits[q] == required[q]) {
+                results.get(q).add(tweet);
+            }
+        }
+    }
+
+    // as hit, but a query's words predicate counts once however many of its words the tweet has
+    private void hitOnce(int[] satisfied, int position, Tweet tweet, int[] hits, int[] stamp, List<List<Tweet>> results) {
+        for (int q : satisfied) {
+            if (stamp[q] != position) {
+                stamp[q] = position;
+                hits[q] = 0;
+            }
+            if ((hits[q] & WORD_BIT) == 0) {
+                hits[q] |= WORD_BIT;
+                if ((hits[q] & ~WORD_BIT) + 1 == required[q]) {
+                    results.get(q).add(tweet);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BatchFilterTest {
+
+    /*
+     * Testing strategy for BatchFilter:
+     * 
+     * Partition as follows:
+     * - queries: none, one, many, duplicates
+     * - query: no predicates, one, two, all three
+     * - words: repeated in a query, several present in one tweet, different case
+     * - timespan: instant, overlapping other timespans, touching tweet
+     *   timestamps, ending at Instant.MAX, starting at Instant.MIN
+     * Differential: randomized corpora and query batches compared against chained Filter calls.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+
+    private static final String[] AUTHORS = { "alyssa", "AlYsSa", "bbitdiddle", "ben", "cy" };
+    private static final String[] VOCABULARY = { "talk", "Rivest", "hype", "so", "much", "a" };
+
+    private static List<Tweet> chained(List<Tweet> tweets, TweetQuery query) {
+        List<Tweet> result = tweets;
+        if (query.author().isPresent()) {
+            result = Filter.writtenBy(result, query.author().get());
+        }
+        if (query.timespan().isPresent()) {
+            result = Filter.inTimespan(result, query.timespan().get());
+        }
+        if (query.words().isPresent()) {
+            result = Filter.containing(result, query.words().get());
+        }
+        return result;
+    }
+
+    private static TweetQuery randomQuery(Random random) {
+        TweetQuery query = TweetQuery.all();
+        if (random.nextBoolean()) {
+            query = query.writtenBy(AUTHORS[random.nextInt(AUTHORS.length)]);
+        }
+        if (random.nextBoolean()) {
+            Instant start = d1.plusSeconds(random.nextInt(100));
+            query = query.inTimespan(new Timespan(start, start.plusSeconds(random.nextInt(30))));
+        }
+        if (random.nextBoolean()) {
+            List<String> words = new ArrayList<>();
+            for (int i = random.nextInt(3); i >= 0; i--) {
+                words.add(VOCABULARY[random.nextInt(VOCABULARY.length)]);
+            }
+            query = query.containing(words);
+        }
+        return query;
+    }
+
+    @Test
+    public void testNoQueries() {
+        BatchFilter batch = new BatchFilter(Collections.emptyList());
+        assertEquals(Collections.emptyList(), batch.run(Arrays.asList(tweet1, tweet2)));
+    }
+
+    @Test
+    public void testOneQueryEachPredicate() {
+        List<TweetQuery> queries = Arrays.asList(
+                TweetQuery.all(),
+                TweetQuery.all().writtenBy("ALYSSA"),
+                TweetQuery.all().inTimespan(new Timespan(d2, d2)),
+                TweetQuery.all().containing(Arrays.asList("talk", "TALK", "rivest")),
+                TweetQuery.all().writtenBy("alyssa").containing(Arrays.asList("hype")));
+        List<List<Tweet>> results = new BatchFilter(queries).run(Arrays.asList(tweet1, tweet2));
+
+        assertEquals(Arrays.asList(tweet1, tweet2), results.get(0));
+        assertEquals(Arrays.asList(tweet1), results.get(1));
+        assertEquals(Arrays.asList(tweet2), results.get(2));
+        assertEquals(Arrays.asList(tweet1, tweet2), results.get(3));
+        assertEquals(Collections.emptyList(), results.get(4));
+    }
+
+    @Test
+    public void testOpenEndedTimespans() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, new Tweet(3, "cy", "end of time", Instant.MAX));
+        List<TweetQuery> queries = Arrays.asList(
+                TweetQuery.all().inTimespan(new Timespan(d2, Instant.MAX)),
+                TweetQuery.all().inTimespan(new Timespan(Instant.MIN, d1)),
+                TweetQuery.all().inTimespan(new Timespan(Instant.MIN, Instant.MAX)),
+                TweetQuery.all().inTimespan(new Timespan(Instant.MAX, Instant.MAX)));
+        List<List<Tweet>> results = new BatchFilter(queries).run(tweets);
+        for (int q = 0; q < queries.size(); q++) {
+            assertEquals(queries.get(q).toString(), chained(tweets, queries.get(q)), results.get(q));
+        }
+    }
+
+    @Test
+    public void testDuplicateQueries() {
+        TweetQuery query = TweetQuery.all().containing(Arrays.asList("rivest"));
+        BatchFilter batch = new BatchFilter(Arrays.asList(query, query));
+        assertEquals(Arrays.asList(query, query), batch.queries());
+        List<List<Tweet>> results = batch.run(Arrays.asList(tweet2, tweet1));
+        assertEquals(Arrays.asList(tweet2, tweet1), results.get(0));
+        assertEquals(results.get(0), results.get(1));
+    }
+
+    @Test
+    public void testRandomizedAgainstFilter() {
+        Random random = new Random(17);
+        for (int trial = 0; trial < 50; trial++) {
+            List<Tweet> tweets = new ArrayList<>();
+            for (int id = 0; id < 200; id++) {
+                String text = VOCABULARY[random.nextInt(VOCABULARY.length)] + " "
+                        + VOCABULARY[random.nextInt(VOCABULARY.length)] + "!"
+                        + VOCABULARY[random.nextInt(VOCABULARY.length)];
+                tweets.add(new Tweet(id, AUTHORS[random.nextInt(AUTHORS.length)], text,
+                        d1.plusSeconds(random.nextInt(100))));
+            }
+            List<TweetQuery> queries = new ArrayList<>();
+            for (int i = random.nextInt(40); i >= 0; i--) {
+                queries.add(randomQuery(random));
+            }
+
+            List<List<Tweet>> results = new BatchFilter(queries).run(tweets);
+            assertEquals(queries.size(), results.size());
+            for (int q = 0; q < queries.size(); q++) {
+                assertEquals(queries.get(q).toString(), chained(tweets, queries.get(q)), results.get(q));
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * BitmapFilter consists of variants of the Filter methods that return the
+ * positions of the matching tweets as a TweetBitmap instead of a list, so
+ * that results can be intersected and combined without building lists.
+ * 
+ * For each method, result.toList(tweets) equals the corresponding Filter
+ * method's result.
+ */
+public class BitmapFilter {
+
+    private BitmapFilter() {
+        // static methods only
+    }
+
+    /**
+     * Find tweets written by a particular user.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @param username
+     *            Twitter username, as for Filter.writtenBy
+     * @return positions in tweets of all and only the tweets whose author is
+     *         username
+     */
+    public static TweetBitmap writtenBy(List<Tweet> tweets, String username) {
+        return TweetBitmap.matching(tweets, tweet -> tweet.getAuthor().equalsIgnoreCase(username));
+    }
+
+    /**
+     * Find tweets that were sent during a particular timespan.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @param timespan
+     *            timespan
+     * @return positions in tweets of all and only the tweets sent during the
+     *         timespan
+     */
+    public static TweetBitmap inTimespan(List<Tweet> tweets, Timespan timespan) {
+        Instant start = timespan.getStart();
+        Instant end = timespan.getEnd();
+        return TweetBitmap.matching(tweets, tweet -> !tweet.getTimestamp().isBefore(start) && !tweet.getTimestamp().isAfter(end));
+    }
+
+    /**
+     * Find tweets that contain certain words.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @param words
+     *            a list of words, as for Filter.containing
+     * @return positions in tweets of all and only the tweets that include at
+     *         least one of the words, as Filter.containing compares them
+     */
+    public static TweetBitmap containing(List<Tweet> tweets, List<String> words) {
+        KeywordMatcher matcher = KeywordMatcher.forWords(words);
+        return TweetBitmap.matching(tweets, tweet -> matcher.matches(tweet.getText()));
+    }
+}
@@ -4,12 +4,11 @@
 package twitter;
 
 import java.time.Instant;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.RandomAccess;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Extract consists of methods that extract information from a list of tweets.
@@ -28,7 +27,32 @@ public class Extract {
      * @return a minimum-length time interval that contains the timestamp of
      *         every tweet in the list.
      */
-	// VARIANT 3 :  using streams API and MIN MAX functions 
+	// VARIANT 4 : single pass over primitive epoch seconds/nanos, fork-join for large lists
+    public static Timespan getTimespan(List<Tweet> tweets) {
+        Instrumentation.Probe probe = Instrumentation.begin("Extract.getTimespan", tweets.size());
+        Timespan timespan = null;
+        try {
+            if (tweets.isEmpty()) {
+                Instant now = Instant.now();
+                timespan = new Timespan(now, now);
+            } else {
+                // indices of the earliest and latest tweets, so no Instant is created or boxed
+                int[] bounds;
+                if (tweets.size() >= PARALLEL_THRESHOLD && tweets instanceof RandomAccess) {
+                    bounds = ForkJoinPool.commonPool().invoke(new TimespanTask(tweets, 0, tweets.size()));
+                } else {
+                    bounds = timespanBounds(tweets);
+                }
+                timespan = new Timespan(tweets.get(bounds[0]).getTimestamp(), tweets.get(bounds[1]).getTimestamp());
+            }
+            return timespan;
+        } finally {
+            Instrumentation.end(probe, timespan == null ? -1 : 1);
+        }
+    }
+
+    /*
+    // VARIANT 3 :  using streams API and MIN MAX functions 
     public static Timespan getTimespan(List<Tweet> tweets) {
     	if (tweets.isEmpty()) {
             Instant now = Instant.now();
@@ -48,11 +72,85 @@ public class Extract {
         } else {
             throw new IllegalArgumentException("Error in determining timespan");
         }
+    }*/
+
+    /** Lists at least this long are reduced in parallel by getTimespan. */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /** Fork-join leaves below this size are reduced sequentially. */
+    private static final int TIMESPAN_LEAF_SIZE = 1 << 13;
+
+    /*
+     * Sequential min/max reduction. Returns {index of earliest, index of latest};
+     * ties keep the first occurrence. Requires tweets nonempty.
+     */
+    private static int[] timespanBounds(List<Tweet> tweets) {
+        int minIndex = 0;
+        int maxIndex = 0;
+        long minSecond = Long.MAX_VALUE;
+        int minNano = 0;
+        long maxSecond = Long.MIN_VALUE;
+        int maxNano = -1;
+        int i = 0;
+        for (Tweet tweet : tweets) {
+            Instant timestamp = tweet.getTimestamp();
+            long second = timestamp.getEpochSecond();
+            int nano = timestamp.getNano();
+            if (second < minSecond || (second == minSecond && nano < minNano)) {
+                minSecond = second;
+                minNano = nano;
+                minIndex = i;
+            }
+            if (second > maxSecond || (second == maxSecond && nano > maxNano)) {
+                maxSecond = second;
+                maxNano = nano;
+                maxIndex = i;
+            }
+            i++;
+        }
+        return new int[] { minIndex, maxIndex };
     }
 
-    	
+    /*
+     * Fork-join min/max reduction over tweets[from, to) of a random-access list.
+     * Produces the same {earliest, latest} indices as timespanBounds.
+     */
+    private static final class TimespanTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Tweet> tweets;
+        private final int from;
+        private final int to;
 
+        TimespanTask(List<Tweet> tweets, int from, int to) {
+            this.tweets = tweets;
+            this.from = from;
+            this.to = to;
+        }
 
+        @Override
+        protected int[] compute() {
+            if (to - from <= TIMESPAN_LEAF_SIZE) {
+                int[] bounds = timespanBounds(tweets.subList(from, to));
+                bounds[0] += from;
+                bounds[1] += from;
+                return bounds;
+            }
+            int mid = (from + to) >>> 1;
+            TimespanTask left = new TimespanTask(tweets, from, mid);
+            left.fork();
+            int[] right = new TimespanTask(tweets, mid, to).compute();
+            int[] bounds = left.join();
+            // left wins ties, matching the sequential first-occurrence rule
+            if (tweets.get(right[0]).getTimestamp().isBefore(tweets.get(bounds[0]).getTimestamp())) {
+                bounds[0] = right[0];
+            }
+            if (tweets.get(right[1]).getTimestamp().isAfter(tweets.get(bounds[1]).getTimestamp())) {
+                bounds[1] = right[1];
+            }
+            return bounds;
+        }
+    }
 
     /**
      * Get usernames mentioned in a list of tweets.
@@ -69,6 +167,26 @@ public class Extract {
      *         Twitter usernames are case-insensitive, and the returned set may
      *         include a username at most once.
      */
+    // VARIANT 2 : hand-written scanner, usernames deduplicated without allocation
+    public static Set<String> getMentionedUsers(List<Tweet> tweets) {
+        Instrumentation.Probe probe = Instrumentation.begin("Extract.getMentionedUsers", tweets.size());
+        Set<String> result = null;
+        try {
+            UsernameTable mentionedUsers = new UsernameTable();
+            MentionScanner.Sink sink = mentionedUsers::intern; // Twitter usernames are case-insensitive
+
+            for (Tweet tweet : tweets) {
+                MentionScanner.scan(tweet.getText(), sink);
+            }
+            result = mentionedUsers.toSet();
+            return result;
+        } finally {
+            Instrumentation.end(probe, result == null ? -1 : result.size());
+        }
+    }
+
+    /*
+    // VARIANT 1 : REGEX
     public static Set<String> getMentionedUsers(List<Tweet> tweets) {
     	 Set<String> mentionedUsers = new HashSet<>();
          Pattern mentionPattern = Pattern.compile("(?<!\\w)@(\\w+)", Pattern.CASE_INSENSITIVE); // matches @username
@@ -84,6 +202,6 @@ public class Extract {
          }
 
          return mentionedUsers;
-    }
+    }*/
 
 }
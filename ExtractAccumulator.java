@@ -0,0 +1,225 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * ExtractAccumulator computes Extract's results incrementally over an
+ * unbounded feed of tweets.
+ * 
+ * Tweets are accepted one at a time, in chunks, from an Iterator, a Stream or
+ * a Flow.Publisher, and never retained: memory is proportional to the number
+ * of distinct mentioned usernames, not to the number of tweets. At any point
+ * getTimespan() and getMentionedUsers() return what Extract would return for
+ * the list of all tweets accepted so far. Accumulators built over separate
+ * shards of a feed can be merged.
+ * 
+ * Safe for use by multiple threads.
+ */
+public class ExtractAccumulator {
+
+    /** Number of tweets requested at a time from a Flow.Publisher. */
+    static final int SUBSCRIPTION_BATCH = 256;
+
+    private long count = 0;
+    // timestamps of the earliest and latest tweets accepted, or null if none
+    private Instant earliest = null;
+    private Instant latest = null;
+    private final UsernameTable mentionedUsers = new UsernameTable();
+    private final MentionScanner.Sink sink = mentionedUsers::intern;
+
+    /**
+     * Make an accumulator that has accepted no tweets.
+     */
+    public ExtractAccumulator() {
+    }
+
+    /**
+     * @return a collector that accumulates a stream's tweets, merging
+     *         accumulators when the stream is parallel
+     */
+    public static Collector<Tweet, ?, ExtractAccumulator> collector() {
+        return Collector.of(ExtractAccumulator::new, ExtractAccumulator::accept, ExtractAccumulator::merge,
+                Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Accept a tweet.
+     * 
+     * @param tweet
+     *            tweet whose id differs from every tweet accepted so far
+     */
+    public synchronized void accept(Tweet tweet) {
+        Instant timestamp = tweet.getTimestamp();
+        if (earliest == null || timestamp.isBefore(earliest)) {
+            earliest = timestamp;
+        }
+        if (latest == null || timestamp.isAfter(latest)) {
+            latest = timestamp;
+        }
+        MentionScanner.scan(tweet.getText(), sink);
+        count++;
+    }
+
+    /**
+     * Accept a chunk of tweets.
+     * 
+     * @param tweets
+     *            tweets, not modified by this method
+     */
+    public synchronized void acceptAll(Iterable<? extends Tweet> tweets) {
+        acceptAll(tweets.iterator());
+    }
+
+    /**
+     * Accept every remaining tweet of an iterator.
+     * 
+     * @param tweets
+     *            iterator, consumed by this method
+     */
+    public synchronized void acceptAll(Iterator<? extends Tweet> tweets) {
+        while (tweets.hasNext()) {
+            accept(tweets.next());
+        }
+    }
+
+    /**
+     * Accept every tweet of a stream. A parallel stream is accumulated in
+     * parallel shards that are then merged into this accumulator.
+     * 
+     * @param tweets
+     *            stream, consumed by this method
+     */
+    public void acceptAll(Stream<? extends Tweet> tweets) {
+        if (tweets.isParallel()) {
+            merge(tweets.collect(collector()));
+        } else {
+            synchronized (this) {
+                tweets.forEachOrdered(this::accept);
+            }
+        }
+    }
+
+    /**
+     * Subscribe to a publisher of tweets, accepting each tweet it publishes.
+     * Tweets are requested in batches of SUBSCRIPTION_BATCH.
+     * 
+     * @param publisher
+     *            publisher of tweets
+     * @return a future that completes with this accumulator when the publisher
+     *         completes, or exceptionally if the publisher fails
+     */
+    public CompletableFuture<ExtractAccumulator> subscribeTo(Flow.Publisher<? extends Tweet> publisher) {
+        CompletableFuture<ExtractAccumulator> done = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<Tweet>() {
+            private Flow.Subscription subscription;
+            private int outstanding;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                outstanding = SUBSCRIPTION_BATCH;
+                subscription.request(SUBSCRIPTION_BATCH);
+            }
+
+            @Override
+            public void onNext(Tweet tweet) {
+                accept(tweet);
+                if (--outstanding == 0) {
+                    outstanding = SUBSCRIPTION_BATCH;
+                    subscription.request(SUBSCRIPTION_BATCH);
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(ExtractAccumulator.this);
+            }
+        });
+        return done;
+    }
+
+    /**
+     * Add another accumulator's tweets to this one, as if every tweet it
+     * accepted had been accepted here.
+     * 
+     * @param other
+     *            accumulator over tweets disjoint from this one's; not modified
+     * @return this accumulator
+     */
+    public ExtractAccumulator merge(ExtractAccumulator other) {
+        if (other == this) {
+            throw new IllegalArgumentException("cannot merge an accumulator into itself");
+        }
+        long otherCount;
+        Instant otherEarliest;
+        Instant otherLatest;
+        String[] otherUsers;
+        synchronized (other) {
+            otherCount = other.count;
+            otherEarliest = other.earliest;
+            otherLatest = other.latest;
+            otherUsers = new String[other.mentionedUsers.size()];
+            for (int id = 0; id < otherUsers.length; id++) {
+                otherUsers[id] = other.mentionedUsers.username(id);
+            }
+        }
+        synchronized (this) {
+            count += otherCount;
+            if (otherEarliest != null && (earliest == null || otherEarliest.isBefore(earliest))) {
+                earliest = otherEarliest;
+            }
+            if (otherLatest != null && (latest == null || otherLatest.isAfter(latest))) {
+                latest = otherLatest;
+            }
+            for (String user : otherUsers) {
+                mentionedUsers.intern(user);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return number of tweets accepted so far
+     */
+    public synchronized long count() {
+        return count;
+    }
+
+    /**
+     * Get the time period spanned by the tweets accepted so far.
+     * 
+     * @return the same timespan Extract.getTimespan returns for the list of
+     *         tweets accepted so far
+     */
+    public synchronized Timespan getTimespan() {
+        if (earliest == null) {
+            Instant now = Instant.now();
+            return new Timespan(now, now);
+        }
+        return new Timespan(earliest, latest);
+    }
+
+    /**
+     * Get usernames mentioned in the tweets accepted so far.
+     * 
+     * @return the same set Extract.getMentionedUsers returns for the list of
+     *         tweets accepted so far; a new mutable set
+     */
+    public synchronized Set<String> getMentionedUsers() {
+        return mentionedUsers.toSet();
+    }
+}
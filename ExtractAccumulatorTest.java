@@ -0,0 +1,109 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.SubmissionPublisher;
+
+import org.junit.Test;
+
+public class ExtractAccumulatorTest {
+
+    /*
+     * Testing strategy for ExtractAccumulator:
+     * 
+     * Partition as follows:
+     * - source: single tweets, Iterable chunk, Iterator, sequential and
+     *   parallel Stream, Flow.Publisher
+     * - tweets accepted: none, one, many
+     * - merge: with empty accumulator, with disjoint shards
+     * Results are compared against Extract over the same list.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final String[] WORDS = { "@alyssa", "@Ben", "hi", "bit@mit.edu", "@cy_1", "#hype" };
+
+    private static List<Tweet> randomTweets(Random random, int size) {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int id = 0; id < size; id++) {
+            String text = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+            tweets.add(new Tweet(id, "alyssa", text, d1.plusSeconds(random.nextInt(1000))));
+        }
+        return tweets;
+    }
+
+    private static void assertMatchesExtract(List<Tweet> tweets, ExtractAccumulator accumulator) {
+        assertEquals("expected count", tweets.size(), accumulator.count());
+        Timespan expected = Extract.getTimespan(tweets);
+        assertEquals("expected start", expected.getStart(), accumulator.getTimespan().getStart());
+        assertEquals("expected end", expected.getEnd(), accumulator.getTimespan().getEnd());
+        assertEquals("expected Extract.getMentionedUsers", Extract.getMentionedUsers(tweets),
+                accumulator.getMentionedUsers());
+    }
+
+    @Test
+    public void testNoTweets() {
+        ExtractAccumulator accumulator = new ExtractAccumulator();
+        Timespan timespan = accumulator.getTimespan();
+        assertEquals("expected same start and end", timespan.getStart(), timespan.getEnd());
+        assertTrue("expected no mentions", accumulator.getMentionedUsers().isEmpty());
+    }
+
+    @Test
+    public void testIncrementalMatchesExtract() {
+        List<Tweet> tweets = randomTweets(new Random(1), 200);
+        ExtractAccumulator accumulator = new ExtractAccumulator();
+        for (int i = 0; i < tweets.size(); i++) {
+            accumulator.accept(tweets.get(i));
+            assertMatchesExtract(tweets.subList(0, i + 1), accumulator);
+        }
+    }
+
+    @Test
+    public void testSources() {
+        List<Tweet> tweets = randomTweets(new Random(2), 5000);
+
+        ExtractAccumulator chunked = new ExtractAccumulator();
+        chunked.acceptAll(tweets.subList(0, 2000));
+        chunked.acceptAll(tweets.subList(2000, 5000).iterator());
+        assertMatchesExtract(tweets, chunked);
+
+        ExtractAccumulator sequential = new ExtractAccumulator();
+        sequential.acceptAll(tweets.stream());
+        assertMatchesExtract(tweets, sequential);
+
+        ExtractAccumulator parallel = new ExtractAccumulator();
+        parallel.acceptAll(tweets.parallelStream());
+        assertMatchesExtract(tweets, parallel);
+    }
+
+    @Test
+    public void testPublisher() throws Exception {
+        List<Tweet> tweets = randomTweets(new Random(3), 1000);
+        ExtractAccumulator accumulator = new ExtractAccumulator();
+        SubmissionPublisher<Tweet> publisher = new SubmissionPublisher<>();
+        CompletableFuture<ExtractAccumulator> done = accumulator.subscribeTo(publisher);
+        tweets.forEach(publisher::submit);
+        publisher.close();
+        assertSame("expected this accumulator", accumulator, done.get());
+        assertMatchesExtract(tweets, accumulator);
+    }
+
+    @Test
+    public void testMergeShards() {
+        List<Tweet> tweets = randomTweets(new Random(4), 300);
+        ExtractAccumulator left = new ExtractAccumulator();
+        left.acceptAll(tweets.subList(0, 100));
+        ExtractAccumulator right = new ExtractAccumulator();
+        right.acceptAll(tweets.subList(100, 300));
+        assertMatchesExtract(tweets, left.merge(right).merge(new ExtractAccumulator()));
+    }
+}
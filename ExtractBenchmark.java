@@ -0,0 +1,105 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for Extract, each method against the variants it replaced.
+ * 
+ * Throughput and SampleTime modes report operations per second and latency
+ * percentiles; run with "-prof gc" to also report allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtractBenchmark {
+
+    private static final Instant START = Instant.parse("2016-02-17T00:00:00Z");
+    private static final Duration SPAN = Duration.ofDays(1);
+
+    @Param({ "1000", "100000", "1000000" })
+    public int corpusSize;
+
+    @Param({ "0.01", "0.1", "0.5" })
+    public double mentionDensity;
+
+    private List<Tweet> tweets;
+
+    @Setup
+    public void setUp() {
+        tweets = new TweetGenerator(42, 10_000, 1000, mentionDensity).tweets(corpusSize, START, SPAN);
+    }
+
+    @Benchmark
+    public Timespan getTimespan() {
+        return Extract.getTimespan(tweets);
+    }
+
+    @Benchmark
+    public Timespan getTimespanTwoStreams() {
+        return twoStreamTimespan(tweets);
+    }
+
+    @Benchmark
+    public Set<String> getMentionedUsers() {
+        return Extract.getMentionedUsers(tweets);
+    }
+
+    @Benchmark
+    public Set<String> getMentionedUsersRegex() {
+        return regexMentionedUsers(tweets);
+    }
+
+    // VARIANT 3 of Extract.getTimespan
+    static Timespan twoStreamTimespan(List<Tweet> tweets) {
+        if (tweets.isEmpty()) {
+            Instant now = Instant.now();
+            return new Timespan(now, now);
+        }
+        Optional<Instant> earliest = tweets.stream()
+                                           .map(Tweet::getTimestamp)
+                                           .min(Instant::compareTo);
+        Optional<Instant> latest = tweets.stream()
+                                         .map(Tweet::getTimestamp)
+                                         .max(Instant::compareTo);
+        return new Timespan(earliest.get(), latest.get());
+    }
+
+    // VARIANT 1 of Extract.getMentionedUsers
+    static Set<String> regexMentionedUsers(List<Tweet> tweets) {
+        Set<String> mentionedUsers = new HashSet<>();
+        Pattern mentionPattern = Pattern.compile("(?<!\\w)@(\\w+)", Pattern.CASE_INSENSITIVE);
+        for (Tweet tweet : tweets) {
+            Matcher matcher = mentionPattern.matcher(tweet.getText());
+            while (matcher.find()) {
+                mentionedUsers.add(matcher.group(1).toLowerCase());
+            }
+        }
+        return mentionedUsers;
+    }
+}
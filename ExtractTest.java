@@ -6,8 +6,11 @@ package twitter;
 import static org.junit.Assert.*;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 
 import org.junit.Test;
@@ -97,6 +100,25 @@ public class ExtractTest {
         assertEquals("expected end time to be the timestamp of the latest tweet", d3, timespan.getEnd());
     }
 
+    @Test
+    public void testGetTimespanLargeListMatchesEndpoints() {
+        // large enough to take the parallel path; extremes placed in the middle of the list
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            tweets.add(new Tweet(i, "alyssa", "tweet " + i, d2.plusNanos(i % 1000)));
+        }
+        tweets.set(123_456, new Tweet(123_456, "alyssa", "earliest", d1));
+        tweets.set(98_765, new Tweet(98_765, "alyssa", "latest", d3));
+
+        Timespan timespan = Extract.getTimespan(tweets);
+        assertEquals("expected start", d1, timespan.getStart());
+        assertEquals("expected end", d3, timespan.getEnd());
+
+        Timespan sequential = Extract.getTimespan(new LinkedList<>(tweets));
+        assertEquals("expected same start for non-random-access list", d1, sequential.getStart());
+        assertEquals("expected same end for non-random-access list", d3, sequential.getEnd());
+    }
+
 //    @Test
 //    public void testGetTimespanMultipleTweetsSameTimestamp() {
 //        Timespan timespan = Extract.getTimespan(Arrays.asList(tweet1, tweet4));
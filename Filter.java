@@ -31,10 +31,16 @@ public class Filter {
      *         in the same order as in the input list.
      */
     public static List<Tweet> writtenBy(List<Tweet> tweets, String username) {
-        
-    	return tweets.stream()
-                .filter(tweet -> tweet.getAuthor().equalsIgnoreCase(username))
-                .collect(Collectors.toList());
+        Instrumentation.Probe probe = Instrumentation.begin("Filter.writtenBy", tweets.size());
+        List<Tweet> result = null;
+        try {
+            result = tweets.stream()
+                    .filter(tweet -> tweet.getAuthor().equalsIgnoreCase(username))
+                    .collect(Collectors.toList());
+            return result;
+        } finally {
+            Instrumentation.end(probe, result == null ? -1 : result.size());
+        }
     }
 
     /**
@@ -49,11 +55,17 @@ public class Filter {
      */
     
     public static List<Tweet> inTimespan(List<Tweet> tweets, Timespan timespan) {
-    	return tweets.stream()
-                .filter(tweet -> !tweet.getTimestamp().isBefore(timespan.getStart()) 
-                              && !tweet.getTimestamp().isAfter(timespan.getEnd()))
-                .collect(Collectors.toList());
-
+        Instrumentation.Probe probe = Instrumentation.begin("Filter.inTimespan", tweets.size());
+        List<Tweet> result = null;
+        try {
+            result = tweets.stream()
+                    .filter(tweet -> !tweet.getTimestamp().isBefore(timespan.getStart()) 
+                                  && !tweet.getTimestamp().isAfter(timespan.getEnd()))
+                    .collect(Collectors.toList());
+            return result;
+        } finally {
+            Instrumentation.end(probe, result == null ? -1 : result.size());
+        }
     }
 
     /**
@@ -99,6 +111,22 @@ public class Filter {
     
  
     
+    //Variant4 : precompiled keyword automaton, one linear pass per tweet; words as Tokenizer splits them
+    public static List<Tweet> containing(List<Tweet> tweets, List<String> words) {
+        Instrumentation.Probe probe = Instrumentation.begin("Filter.containing", tweets.size());
+        List<Tweet> result = null;
+        try {
+            KeywordMatcher matcher = KeywordMatcher.forWords(words);
+            result = tweets.stream()
+                    .filter(tweet -> matcher.matches(tweet.getText()))
+                    .collect(Collectors.toList());
+            return result;
+        } finally {
+            Instrumentation.end(probe, result == null ? -1 : result.size());
+        }
+    }
+
+    /*
     //Variant3 : Iterative Word Search
     public static List<Tweet> containing(List<Tweet> tweets, List<String> words) {
         // Convert the words list to lowercase for case-insensitive matching
@@ -120,7 +148,7 @@ public class Filter {
                     return false;
                 })
                 .collect(Collectors.toList());
-    }
+    }*/
 
 }
     
\ No newline at end of file
@@ -0,0 +1,197 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for Filter, each method against the variants it replaced.
+ * 
+ * Throughput and SampleTime modes report operations per second and latency
+ * percentiles; run with "-prof gc" to also report allocation rate. Variant 1
+ * of containing compiles a regex per tweet, so restrict it with
+ * "-p wordListLength=1,10" on large corpora.
+ * 
+ * FilterBenchmark.Parallel measures ParallelFilter against its sequential
+ * path, to locate the corpus size above which going parallel pays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterBenchmark {
+
+    private static final Instant START = Instant.parse("2016-02-17T00:00:00Z");
+    private static final Duration SPAN = Duration.ofDays(1);
+
+    @Param({ "1000", "100000" })
+    public int corpusSize;
+
+    @Param({ "1000", "100000" })
+    public int vocabularySize;
+
+    @Param({ "1", "10", "1000" })
+    public int wordListLength;
+
+    @Param({ "0.01", "0.5" })
+    public double timespanSelectivity;
+
+    private List<Tweet> tweets;
+    private List<String> words;
+    private Timespan timespan;
+    private String author;
+
+    @Setup
+    public void setUp() {
+        TweetGenerator generator = new TweetGenerator(42, vocabularySize, 1000, 0.1);
+        tweets = generator.tweets(corpusSize, START, SPAN);
+        words = generator.words(wordListLength);
+        timespan = generator.timespan(START, SPAN, timespanSelectivity);
+        author = TweetGenerator.author(7).toUpperCase();
+    }
+
+    @Benchmark
+    public List<Tweet> writtenBy() {
+        return Filter.writtenBy(tweets, author);
+    }
+
+    @Benchmark
+    public List<Tweet> inTimespan() {
+        return Filter.inTimespan(tweets, timespan);
+    }
+
+    @Benchmark
+    public List<Tweet> containing() {
+        return Filter.containing(tweets, words);
+    }
+
+    @Benchmark
+    public List<Tweet> containingRegex() {
+        return regexContaining(tweets, words);
+    }
+
+    @Benchmark
+    public List<Tweet> containingWordSet() {
+        return wordSetContaining(tweets, words);
+    }
+
+    @Benchmark
+    public List<Tweet> containingSplit() {
+        return splitContaining(tweets, words);
+    }
+
+    // VARIANT 1 of Filter.containing
+    static List<Tweet> regexContaining(List<Tweet> tweets, List<String> words) {
+        String pattern = "\\b(" + String.join("|", words.stream().map(Pattern::quote).collect(Collectors.toList())) + ")\\b";
+        return tweets.stream()
+                .filter(tweet -> Pattern.compile(pattern, Pattern.CASE_INSENSITIVE).matcher(tweet.getText()).find())
+                .collect(Collectors.toList());
+    }
+
+    // VARIANT 2 of Filter.containing
+    static List<Tweet> wordSetContaining(List<Tweet> tweets, List<String> words) {
+        Set<String> lowerCaseWords = words.stream()
+                                          .map(String::toLowerCase)
+                                          .collect(Collectors.toSet());
+        return tweets.stream()
+                .filter(tweet -> {
+                    Set<String> tweetWords = Arrays.stream(tweet.getText().split("\\s+"))
+                                                   .map(word -> word.replaceAll("\\W", "").toLowerCase())
+                                                   .collect(Collectors.toSet());
+                    return tweetWords.stream().anyMatch(lowerCaseWords::contains);
+                })
+                .collect(Collectors.toList());
+    }
+
+    // VARIANT 3 of Filter.containing
+    static List<Tweet> splitContaining(List<Tweet> tweets, List<String> words) {
+        List<String> lowerCaseWords = words.stream()
+                                           .map(String::toLowerCase)
+                                           .collect(Collectors.toList());
+        return tweets.stream()
+                .filter(tweet -> {
+                    for (String tweetWord : tweet.getText().toLowerCase().split("\\W+")) {
+                        if (lowerCaseWords.contains(tweetWord)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * ParallelFilter on the common fork-join pool. A chunkSize of 0 runs the
+     * same methods on ParallelFilter's sequential path, as the baseline for
+     * each corpus size.
+     */
+    @State(Scope.Benchmark)
+    @BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(1)
+    public static class Parallel {
+
+        @Param({ "1024", "8192", "32768", "131072", "524288" })
+        public int corpusSize;
+
+        @Param({ "0", "1024", "4096", "16384" })
+        public int chunkSize;
+
+        private List<Tweet> tweets;
+        private List<String> words;
+        private Timespan timespan;
+        private String author;
+        private ParallelFilter parallel;
+
+        @Setup
+        public void setUp() {
+            TweetGenerator generator = new TweetGenerator(42, 1000, 1000, 0.1);
+            tweets = generator.tweets(corpusSize, START, SPAN);
+            words = generator.words(10);
+            timespan = generator.timespan(START, SPAN, 0.5);
+            author = TweetGenerator.author(7).toUpperCase();
+            parallel = chunkSize == 0 ? new ParallelFilter(ForkJoinPool.commonPool(), Integer.MAX_VALUE, 1)
+                                      : new ParallelFilter(ForkJoinPool.commonPool(), 0, chunkSize);
+        }
+
+        @Benchmark
+        public List<Tweet> writtenBy() {
+            return parallel.writtenBy(tweets, author);
+        }
+
+        @Benchmark
+        public List<Tweet> inTimespan() {
+            return parallel.inTimespan(tweets, timespan);
+        }
+
+        @Benchmark
+        public List<Tweet> containing() {
+            return parallel.containing(tweets, words);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HeavyHitters estimates the most-mentioned users of an unbounded feed of
+ * tweets in bounded memory, with the Space-Saving algorithm.
+ * 
+ * At most capacity usernames are monitored. A mention of a monitored user
+ * increments its counter; a mention of any other user replaces the user with
+ * the smallest counter c, taking over count c + 1 with error c. Every
+ * monitored user's count is then an upper bound on its true mentions and
+ * count - error a lower bound, and every user mentioned more than
+ * total() / capacity times is monitored. Summaries of separate shards can be
+ * merged, keeping those guarantees.
+ * 
+ * Usernames are interned in a UsernameTable, so a mention of an already
+ * known user costs no allocation, and counters are primitive arrays indexed
+ * through the interned id. The table is rebuilt with only the monitored users
+ * once it holds more than DICTIONARY_FACTOR times capacity usernames, so
+ * memory stays bounded by capacity however many distinct users are seen.
+ * 
+ * Not safe for use by multiple threads.
+ */
+public class HeavyHitters {
+
+    /**
+     * An immutable estimate for one monitored user.
+     */
+    public static final class Entry {
+        private final String username;
+        private final long count;
+        private final long error;
+
+        private Entry(String username, long count, long error) {
+            this.username = username;
+            this.count = count;
+            this.error = error;
+        }
+
+        /**
+         * @return case-folded username
+         */
+        public String username() {
+            return username;
+        }
+
+        /**
+         * @return upper bound on the user's mentions
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * @return maximum overestimate; count() - error() is a lower bound
+         */
+        public long error() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return username + "=" + count + "(+-" + error + ")";
+        }
+    }
+
+    /** The username table is compacted once it exceeds this many times capacity. */
+    static final int DICTIONARY_FACTOR = 4;
+
+    private final int capacity;
+    private long total = 0;
+    // binary min-heap of monitored slots by count; position[slot] is its heap index
+    private final int[] ids;
+    private final long[] counts;
+    private final long[] errors;
+    private final int[] heap;
+    private final int[] position;
+    private int size = 0;
+    private UsernameTable users = new UsernameTable();
+    // slotOf[id] is the slot monitoring username id plus one, or 0 if it is not monitored
+    private int[] slotOf = new int[16];
+
+    private final MentionScanner.Sink sink = (text, start, end) -> count(users.intern(text, start, end), 1);
+
+    /**
+     * Make an empty summary.
+     * 
+     * @param capacity
+     *            maximum number of monitored users, >= 1
+     */
+    public HeavyHitters(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        ids = new int[capacity];
+        counts = new long[capacity];
+        errors = new long[capacity];
+        heap = new int[capacity];
+        position = new int[capacity];
+    }
+
+    /**
+     * Count a tweet's mentions, as Extract.getMentionedUsers defines them.
+     * 
+     * @param tweet
+     *            tweet
+     */
+    public void add(Tweet tweet) {
+        MentionScanner.scan(tweet.getText(), sink);
+    }
+
+    /**
+     * Count mentions of a user.
+     * 
+     * @param username
+     *            Twitter username, any case
+     * @param mentions
+     *            number of mentions, >= 1
+     */
+    public void offer(String username, long mentions) {
+        count(users.intern(username), mentions);
+    }
+
+    private void count(int id, long mentions) {
+        total += mentions;
+        if (id >= slotOf.length) {
+            slotOf = Arrays.copyOf(slotOf, Math.max(slotOf.length * 2, id + 1));
+        }
+        int slot = slotOf[id] - 1;
+        if (slot >= 0) {
+            counts[slot] += mentions;
+            siftDown(position[slot]);
+        } else if (size < capacity) {
+            int newSlot = size;
+            ids[newSlot] = id;
+            counts[newSlot] = mentions;
+            errors[newSlot] = 0;
+            heap[size] = newSlot;
+            position[newSlot] = size;
+            size++;
+            slotOf[id] = newSlot + 1;
+            siftUp(size - 1);
+        } else {
+            int minSlot = heap[0];
+            long min = counts[minSlot];
+            slotOf[ids[minSlot]] = 0;
+            ids[minSlot] = id;
+            counts[minSlot] = min + mentions;
+            errors[minSlot] = min;
+            slotOf[id] = minSlot + 1;
+            siftDown(0);
+        }
+        if (users.size() > Math.max(64, (long) DICTIONARY_FACTOR * capacity)) {
+            compactUsers();
+        }
+    }
+
+    // rebuild the username table with only the monitored users
+    private void compactUsers() {
+        UsernameTable compacted = new UsernameTable();
+        int[] compactedSlotOf = new int[Math.max(16, size * 2)];
+        for (int slot = 0; slot < size; slot++) {
+            int id = compacted.intern(users.username(ids[slot]));
+            ids[slot] = id;
+            compactedSlotOf[id] = slot + 1;
+        }
+        users = compacted;
+        slotOf = compactedSlotOf;
+    }
+
+    /**
+     * @return number of usernames in the dictionary, at most
+     *         max(64, DICTIONARY_FACTOR * capacity)
+     */
+    int dictionarySize() {
+        return users.size();
+    }
+
+    /**
+     * Add another summary's counts to this one. Users monitored by only one
+     * summary are charged the other summary's minimum count as extra error.
+     * 
+     * @param other
+     *            summary of mentions disjoint from this one's, other than
+     *            this summary; not modified
+     * @return this summary
+     * @throws IllegalArgumentException
+     *             if other is this summary, whose mentions are not disjoint
+     *             from its own
+     */
+    public HeavyHitters merge(HeavyHitters other) {
+        if (other == this) {
+            throw new IllegalArgumentException("cannot merge a summary into itself");
+        }
+        long thisMin = size < capacity ? 0 : counts[heap[0]];
+        long otherMin = other.size < other.capacity ? 0 : other.counts[other.heap[0]];
+
+        Map<String, long[]> combined = new HashMap<>();
+        for (int slot = 0; slot < size; slot++) {
+            combined.put(users.username(ids[slot]), new long[] { counts[slot] + otherMin, errors[slot] + otherMin });
+        }
+        for (int slot = 0; slot < other.size; slot++) {
+            String name = other.users.username(other.ids[slot]);
+            long[] estimate = combined.get(name);
+            if (estimate == null) {
+                combined.put(name, new long[] { other.counts[slot] + thisMin, other.errors[slot] + thisMin });
+            } else {
+                estimate[0] += other.counts[slot] - otherMin;
+                estimate[1] += other.errors[slot] - otherMin;
+            }
+        }
+
+        List<Map.Entry<String, long[]>> ranked = new ArrayList<>(combined.entrySet());
+        ranked.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        long newTotal = total + other.total;
+        users = new UsernameTable();
+        slotOf = new int[Math.max(16, capacity * 2)];
+        size = 0;
+        for (Map.Entry<String, long[]> entry : ranked.subList(0, Math.min(capacity, ranked.size()))) {
+            int id = users.intern(entry.getKey());
+            ids[size] = id;
+            counts[size] = entry.getValue()[0];
+            errors[size] = entry.getValue()[1];
+            slotOf[id] = size + 1;
+            heap[size] = size;
+            position[size] = size;
+            size++;
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+        total = newTotal;
+        return this;
+    }
+
+    /**
+     * @return total number of mentions counted
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * @param k
+     *            number of users, >= 0
+     * @return estimates for the (at most) k monitored users with the highest
+     *         counts, highest first
+     */
+    public List<Entry> top(int k) {
+        Integer[] order = new Integer[size];
+        for (int slot = 0; slot < size; slot++) {
+            order[slot] = slot;
+        }
+        Arrays.sort(order, (a, b) -> counts[a] != counts[b] ? Long.compare(counts[b], counts[a])
+                : users.username(ids[a]).compareTo(users.username(ids[b])));
+        List<Entry> result = new ArrayList<>();
+        for (int i = 0; i < Math.min(k, size); i++) {
+            int slot = order[i];
+            result.add(new Entry(users.username(ids[slot]), counts[slot], errors[slot]));
+        }
+        return result;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (counts[heap[parent]] <= counts[heap[index]]) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                if (counts[heap[child]] < counts[heap[smallest]]) {
+                    smallest = child;
+                }
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int slot = heap[i];
+        heap[i] = heap[j];
+        heap[j] = slot;
+        position[heap[i]] = i;
+        position[heap[j]] = j;
+    }
+}
@@ -0,0 +1,119 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Instrumentation measures Filter and Extract calls and reports them to a
+ * pluggable TweetMetrics.
+ * 
+ * Instrumented methods bracket their work with begin and end, calling end in
+ * a finally block so that calls which throw are reported too. While no
+ * metrics are installed, begin returns null after one volatile read and end
+ * returns at once, so disabled instrumentation costs almost nothing and
+ * allocates nothing.
+ */
+public final class Instrumentation {
+
+    private static volatile TweetMetrics metrics = null;
+
+    // HotSpot's per-thread allocation counter, or null if unavailable
+    private static final com.sun.management.ThreadMXBean ALLOCATION = allocationCounter();
+
+    private Instrumentation() {
+        // static methods only
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        try {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+                if (counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled()) {
+                    return counter;
+                }
+            }
+        } catch (LinkageError | SecurityException e) {
+            // not HotSpot, or not permitted: allocation is reported as -1
+        }
+        return null;
+    }
+
+    /**
+     * Enable instrumentation, or disable it.
+     * 
+     * @param newMetrics
+     *            receives measurements from now on, or null to disable
+     */
+    public static void setMetrics(TweetMetrics newMetrics) {
+        metrics = newMetrics;
+    }
+
+    /**
+     * @return true iff instrumentation is enabled
+     */
+    public static boolean isEnabled() {
+        return metrics != null;
+    }
+
+    /**
+     * A call in progress.
+     */
+    static final class Probe {
+        private final TweetMetrics metrics;
+        private final String method;
+        private final int inputSize;
+        private final Object state;
+        private final long startNanos;
+        private final long startAllocated;
+
+        private Probe(TweetMetrics metrics, String method, int inputSize) {
+            this.metrics = metrics;
+            this.method = method;
+            this.inputSize = inputSize;
+            // before the measurement starts, so the metrics' own work is not counted
+            this.state = metrics.begin(method, inputSize);
+            this.startAllocated = allocatedBytes();
+            this.startNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Start measuring a call.
+     * 
+     * @param method
+     *            name of the method
+     * @param inputSize
+     *            number of input tweets
+     * @return a probe to pass to end, or null if instrumentation is disabled
+     */
+    static Probe begin(String method, int inputSize) {
+        TweetMetrics current = metrics;
+        return current == null ? null : new Probe(current, method, inputSize);
+    }
+
+    /**
+     * Finish measuring a call and report it.
+     * 
+     * @param probe
+     *            result of begin, possibly null
+     * @param outputSize
+     *            number of tweets or usernames returned, or -1 if the call
+     *            threw an exception
+     */
+    static void end(Probe probe, int outputSize) {
+        if (probe == null) {
+            return;
+        }
+        long nanos = System.nanoTime() - probe.startNanos;
+        long allocated = probe.startAllocated < 0 ? -1 : allocatedBytes() - probe.startAllocated;
+        probe.metrics.end(probe.state, probe.method, probe.inputSize, outputSize, nanos, allocated);
+    }
+
+    private static long allocatedBytes() {
+        return ALLOCATION == null ? -1 : ALLOCATION.getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,76 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for the cost of Instrumentation.
+ * 
+ * Compares Filter.writtenBy with instrumentation disabled and enabled against
+ * an uninstrumented copy of its body; the disabled case should match the
+ * baseline within noise. probeOnly measures begin/end alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstrumentationBenchmark {
+
+    @Param({ "100", "10000" })
+    public int corpusSize;
+
+    @Param({ "disabled", "recording" })
+    public String metrics;
+
+    private List<Tweet> tweets;
+
+    @Setup
+    public void setUp() {
+        tweets = new TweetGenerator(42, 1000, 100, 0.1).tweets(corpusSize, Instant.parse("2016-02-17T00:00:00Z"),
+                Duration.ofDays(1));
+        Instrumentation.setMetrics(metrics.equals("recording") ? new RecordingMetrics() : null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Instrumentation.setMetrics(null);
+    }
+
+    @Benchmark
+    public List<Tweet> writtenBy() {
+        return Filter.writtenBy(tweets, "user7");
+    }
+
+    @Benchmark
+    public List<Tweet> writtenByUninstrumented() {
+        return tweets.stream()
+                .filter(tweet -> tweet.getAuthor().equalsIgnoreCase("user7"))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public void probeOnly() {
+        Instrumentation.end(Instrumentation.begin("probe", corpusSize), 0);
+    }
+}
@@ -0,0 +1,162 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class InstrumentationTest {
+
+    /*
+     * Testing strategy for Instrumentation, RecordingMetrics and LatencyHistogram:
+     * 
+     * Partition as follows:
+     * - instrumentation: disabled, enabled with RecordingMetrics, enabled with JFR
+     *   events (recording off, recording on)
+     * - method: each Filter and Extract method
+     * - call: returns, throws
+     * - histogram values: exact range (< 32), large, extreme; percentiles 0, 50, 100
+     */
+
+    private static final Instant START = Instant.parse("2016-02-17T00:00:00Z");
+
+    private static final List<Tweet> TWEETS = new TweetGenerator(6005, 100, 20, 0.1).tweets(1000, START, Duration.ofDays(1));
+
+    @Test
+    public void testRecordsEachMethod() {
+        RecordingMetrics metrics = new RecordingMetrics();
+        Instrumentation.setMetrics(metrics);
+        try {
+            List<Tweet> written = Filter.writtenBy(TWEETS, "user1");
+            Filter.writtenBy(TWEETS, "user2");
+            Filter.inTimespan(TWEETS, new Timespan(START, START.plus(Duration.ofHours(6))));
+            Filter.containing(TWEETS, Arrays.asList("w1"));
+            Extract.getTimespan(TWEETS);
+            int mentioned = Extract.getMentionedUsers(TWEETS).size();
+
+            RecordingMetrics.MethodStats writtenBy = metrics.stats("Filter.writtenBy");
+            assertEquals("expected two calls", 2, writtenBy.calls());
+            assertEquals("expected inputs", 2 * TWEETS.size(), writtenBy.inputs());
+            assertEquals("expected latencies", 2, writtenBy.latency().count());
+            assertTrue("expected selectivity below 1", writtenBy.selectivity() < 1);
+            assertTrue("expected outputs to include first call", writtenBy.outputs() >= written.size());
+            for (String method : Arrays.asList("Filter.inTimespan", "Filter.containing", "Extract.getTimespan")) {
+                assertEquals("expected one call of " + method, 1, metrics.stats(method).calls());
+            }
+            assertEquals("expected mention count", mentioned, metrics.stats("Extract.getMentionedUsers").outputs());
+        } finally {
+            Instrumentation.setMetrics(null);
+        }
+        assertFalse("expected disabled", Instrumentation.isEnabled());
+        Filter.writtenBy(TWEETS, "user1");
+    }
+
+    @Test
+    public void testDisabledRecordsNothing() {
+        RecordingMetrics metrics = new RecordingMetrics();
+        Instrumentation.setMetrics(metrics);
+        Instrumentation.setMetrics(null);
+        Filter.writtenBy(TWEETS, "user1");
+        assertEquals("expected no calls", 0, metrics.stats("Filter.writtenBy").calls());
+    }
+
+    @Test
+    public void testJfrMetricsRunWithoutRecording() {
+        Instrumentation.setMetrics(TweetCallEvent.metrics());
+        try {
+            assertEquals("expected same result", Filter.writtenBy(TWEETS, "user1").size(),
+                    Filter.writtenBy(TWEETS, "USER1").size());
+        } finally {
+            Instrumentation.setMetrics(null);
+        }
+    }
+
+    @Test
+    public void testJfrEventsRecorded() throws IOException {
+        Path file = Files.createTempFile("tweet-calls", ".jfr");
+        Instrumentation.setMetrics(TweetCallEvent.metrics());
+        try (Recording recording = new Recording()) {
+            recording.enable("twitter.TweetCall");
+            recording.start();
+            int written = Filter.writtenBy(TWEETS, "user1").size();
+            int mentioned = Extract.getMentionedUsers(TWEETS).size();
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName().equals("twitter.TweetCall")) {
+                    events.add(event);
+                }
+            }
+            assertEquals("expected one event per call", 2, events.size());
+            events.sort((a, b) -> a.getStartTime().compareTo(b.getStartTime()));
+            assertEquals("expected method", "Filter.writtenBy", events.get(0).getString("method"));
+            assertEquals("expected output size", written, events.get(0).getInt("outputSize"));
+            assertEquals("expected method", "Extract.getMentionedUsers", events.get(1).getString("method"));
+            assertEquals("expected output size", mentioned, events.get(1).getInt("outputSize"));
+            for (RecordedEvent event : events) {
+                assertEquals("expected input size", TWEETS.size(), event.getInt("inputSize"));
+                assertTrue("expected positive nanos", event.getLong("nanos") > 0);
+                assertTrue("expected the event to span the call", event.getDuration().toNanos() > 0);
+            }
+        } finally {
+            Instrumentation.setMetrics(null);
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testFailedCallRecorded() {
+        RecordingMetrics metrics = new RecordingMetrics();
+        Instrumentation.setMetrics(metrics);
+        try {
+            Filter.inTimespan(TWEETS, null);
+            fail("expected NullPointerException");
+        } catch (NullPointerException e) {
+            RecordingMetrics.MethodStats stats = metrics.stats("Filter.inTimespan");
+            assertEquals("expected one call", 1, stats.calls());
+            assertEquals("expected one failure", 1, stats.failures());
+            assertEquals("expected no outputs", 0, stats.outputs());
+            assertEquals("expected latency", 1, stats.latency().count());
+        } finally {
+            Instrumentation.setMetrics(null);
+        }
+    }
+
+    @Test
+    public void testHistogramPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals("expected 0 when empty", 0, histogram.percentile(50));
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000);
+        }
+        histogram.record(Long.MAX_VALUE);
+        assertEquals("expected count", 1001, histogram.count());
+        long median = histogram.percentile(50);
+        assertTrue("expected median near 500000: " + median, median >= 500_000 && median <= 500_000 * 33 / 32);
+        long smallest = histogram.percentile(0);
+        assertTrue("expected smallest near 1000: " + smallest, smallest >= 1000 && smallest <= 1000 * 33 / 32);
+        assertEquals("expected max", Long.MAX_VALUE, histogram.percentile(100));
+
+        for (long value = 0; value < 1 << 20; value = value * 3 + 1) {
+            long highest = LatencyHistogram.highestValue(LatencyHistogram.bucket(value));
+            assertTrue("expected bucket to cover " + value, highest >= value && highest <= value + value / 32);
+        }
+    }
+}
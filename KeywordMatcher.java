@@ -0,0 +1,352 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * KeywordMatcher is a precompiled automaton that decides whether a tweet text
+ * contains any of a list of words, with the word semantics of
+ * Filter.containing that Tokenizer defines: the text's words are the pieces
+ * of its lowercased form between runs of non-word characters, compared
+ * case-insensitively and whole.
+ * 
+ * The words are compiled into a trie over the word characters [a-z0-9_], the
+ * goto function of an Aho-Corasick automaton. Because matches must cover a
+ * whole word of the text, every match starts at a word boundary and no failure
+ * links are needed: matches() walks each text word through the trie once, so
+ * a text is matched in one linear pass whatever the number of words.
+ * 
+ * Immutable, so safe for use by multiple threads once constructed.
+ */
+final class KeywordMatcher {
+
+    /** Maximum number of compiled matchers kept by forWords. */
+    static final int CACHE_CAPACITY = 64;
+
+    private static final int ALPHABET_SIZE = 37;
+
+    // least recently used word lists are evicted first
+    private static final Map<List<String>, KeywordMatcher> CACHE =
+            new LinkedHashMap<List<String>, KeywordMatcher>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<String>, KeywordMatcher> eldest) {
+                    return size() > CACHE_CAPACITY;
+                }
+            };
+
+    // trie transitions, open addressing: keys[h] is node * 64 + symbol + 1, or 0 if empty
+    private long[] keys = new long[64];
+    private int[] targets = new int[64];
+    private int transitions = 0;
+    // accepting[node] iff the path from the root to node spells one of the words
+    private boolean[] accepting = new boolean[16];
+    private int nodes = 1;
+    // true iff the empty string is one of the words
+    private final boolean acceptsEmpty;
+
+    /**
+     * Get a matcher for a word list, compiling it only if it is not cached.
+     * 
+     * @param words
+     *            a list of words, as for Filter.containing; not modified
+     * @return a matcher for words
+     */
+    static KeywordMatcher forWords(List<String> words) {
+        List<String> key = List.copyOf(words);
+        synchronized (CACHE) {
+            KeywordMatcher matcher = CACHE.get(key);
+            if (matcher != null) {
+                return matcher;
+            }
+        }
+        KeywordMatcher matcher = new KeywordMatcher(key);
+        synchronized (CACHE) {
+            CACHE.put(key, matcher);
+        }
+        return matcher;
+    }
+
+    /**
+     * Compile a word list.
+     * 
+     * @param words
+     *            a list of words, as for Filter.containing; not modified
+     */
+    KeywordMatcher(List<String> words) {
+        boolean empty = false;
+        for (String word : words) {
+            String lowerCaseWord = Tokenizer.normalize(word);
+            if (lowerCaseWord.isEmpty()) {
+                empty = true;
+            } else {
+                add(lowerCaseWord);
+            }
+        }
+        acceptsEmpty = empty;
+    }
+
+    // add a nonempty lowercased word to the trie, unless it can never equal a text word
+    private void add(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (symbol(word.charAt(i)) < 0) {
+                return;
+            }
+        }
+        int node = 0;
+        for (int i = 0; i < word.length(); i++) {
+            int symbol = symbol(word.charAt(i));
+            int next = next(node, symbol);
+            if (next < 0) {
+                next = addNode();
+                addTransition(node, symbol, next);
+            }
+            node = next;
+        }
+        accepting[node] = true;
+    }
+
+    /**
+     * @param text
+     *            tweet text
+     * @return true iff some word of text equals one of this matcher's words,
+     *         in the sense of Filter.containing
+     */
+    boolean matches(String text) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            // skip to the start of the next word
+            while (i < length && !isWordChar(text.charAt(i))) {
+                if (text.charAt(i) >= 0x80) {
+                    return matchesLowerCase(Tokenizer.lowerCase(text));
+                }
+                i++;
+            }
+            // walk the word through the trie
+            int node = 0;
+            while (i < length && isWordChar(text.charAt(i))) {
+                if (node >= 0) {
+                    node = next(node, symbol(MentionScanner.fold(text.charAt(i))));
+                }
+                i++;
+            }
+            if (i < length && text.charAt(i) >= 0x80) {
+                return matchesLowerCase(Tokenizer.lowerCase(text));
+            }
+            if (node > 0 && accepting[node]) {
+                return true;
+            }
+        }
+        return acceptsEmpty && acceptsEmptyWord(text);
+    }
+
+    /**
+     * @param bytes
+     *            buffer holding tweet text as UTF-8; read with absolute gets,
+     *            so its position is not changed
+     * @param start
+     *            index of the first byte of the text
+     * @param end
+     *            index just past the last byte of the text
+     * @return true iff some word of the decoded text equals one of this
+     *         matcher's words, in the sense of Filter.containing
+     */
+    boolean matches(ByteBuffer bytes, int start, int end) {
+        int i = start;
+        while (i < end) {
+            while (i < end && !MentionScanner.isWordByte(bytes.get(i))) {
+                if (bytes.get(i) < 0) {
+                    return matches(decode(bytes, start, end));
+                }
+                i++;
+            }
+            int node = 0;
+            while (i < end && MentionScanner.isWordByte(bytes.get(i))) {
+                if (node >= 0) {
+                    node = next(node, symbol(MentionScanner.fold((char) bytes.get(i))));
+                }
+                i++;
+            }
+            if (i < end && bytes.get(i) < 0) {
+                return matches(decode(bytes, start, end));
+            }
+            if (node > 0 && accepting[node]) {
+                return true;
+            }
+        }
+        if (!acceptsEmpty) {
+            return false;
+        }
+        // as acceptsEmptyWord, for ASCII bytes
+        if (start == end) {
+            return true;
+        }
+        if (MentionScanner.isWordByte(bytes.get(start))) {
+            return false;
+        }
+        for (int j = start + 1; j < end; j++) {
+            if (MentionScanner.isWordByte(bytes.get(j))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param text
+     *            ASCII tweet text with its letters lowercased, as left by
+     *            ScanBackend.foldWordRuns
+     * @param length
+     *            number of characters of text, from index 0
+     * @param runs
+     *            bounds of the word runs of text, as found by foldWordRuns
+     * @param count
+     *            number of runs
+     * @return true iff some word of the text equals one of this matcher's
+     *         words, in the sense of Filter.containing
+     */
+    boolean matches(char[] text, int length, int[] runs, int count) {
+        for (int r = 0; r < count; r++) {
+            int node = 0;
+            for (int i = runs[2 * r]; i < runs[2 * r + 1] && node >= 0; i++) {
+                node = next(node, symbol(text[i]));
+            }
+            if (node > 0 && accepting[node]) {
+                return true;
+            }
+        }
+        // as acceptsEmptyWord: empty, or starts with a non-word character and has a word
+        return acceptsEmpty && (length == 0 || (count > 0 && runs[0] > 0));
+    }
+
+    // slow path for non-ASCII bytes, whose lowercase form may gain ASCII letters
+    private static String decode(ByteBuffer bytes, int start, int end) {
+        byte[] copy = new byte[end - start];
+        bytes.get(start, copy);
+        return new String(copy, StandardCharsets.UTF_8);
+    }
+
+    /*
+     * Slow path for text with non-ASCII characters, whose lowercase form may
+     * differ in length or gain ASCII letters. Requires lowerCaseText to be
+     * a Tokenizer.lowerCase result.
+     */
+    private boolean matchesLowerCase(String lowerCaseText) {
+        int length = lowerCaseText.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !isWordChar(lowerCaseText.charAt(i))) {
+                i++;
+            }
+            int node = 0;
+            while (i < length && isWordChar(lowerCaseText.charAt(i))) {
+                if (node >= 0) {
+                    node = next(node, symbol(lowerCaseText.charAt(i)));
+                }
+                i++;
+            }
+            if (node > 0 && accepting[node]) {
+                return true;
+            }
+        }
+        return acceptsEmpty && acceptsEmptyWord(lowerCaseText);
+    }
+
+    /*
+     * String.split drops trailing empty strings, so the text's words include
+     * the empty word iff the text is empty, or it starts with a non-word
+     * character and has at least one word character. Requires text to be
+     * ASCII or lowercased, so that its word characters are those of its
+     * lowercase form.
+     */
+    private static boolean acceptsEmptyWord(String text) {
+        if (text.isEmpty()) {
+            return true;
+        }
+        if (isWordChar(text.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < text.length(); i++) {
+            if (isWordChar(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Tokenizer.isWordChar(c);
+    }
+
+    // index of a lowercase word character in the trie alphabet, or -1
+    private static int symbol(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        } else if (c >= '0' && c <= '9') {
+            return 26 + (c - '0');
+        } else if (c == '_') {
+            return ALPHABET_SIZE - 1;
+        }
+        return -1;
+    }
+
+    // target of node's transition on symbol, or -1 if there is none
+    private int next(int node, int symbol) {
+        long key = ((long) node << 6) + symbol + 1;
+        int mask = keys.length - 1;
+        for (int h = hash(key) & mask; ; h = (h + 1) & mask) {
+            if (keys[h] == key) {
+                return targets[h];
+            } else if (keys[h] == 0) {
+                return -1;
+            }
+        }
+    }
+
+    private void addTransition(int node, int symbol, int target) {
+        if (2 * (transitions + 1) > keys.length) {
+            long[] oldKeys = keys;
+            int[] oldTargets = targets;
+            keys = new long[oldKeys.length * 2];
+            targets = new int[oldKeys.length * 2];
+            for (int h = 0; h < oldKeys.length; h++) {
+                if (oldKeys[h] != 0) {
+                    put(oldKeys[h], oldTargets[h]);
+                }
+            }
+        }
+        put(((long) node << 6) + symbol + 1, target);
+        transitions++;
+    }
+
+    private void put(long key, int target) {
+        int mask = keys.length - 1;
+        int h = hash(key) & mask;
+        while (keys[h] != 0) {
+            h = (h + 1) & mask;
+        }
+        keys[h] = key;
+        targets[h] = target;
+    }
+
+    private int addNode() {
+        if (nodes == accepting.length) {
+            accepting = Arrays.copyOf(accepting, nodes * 2);
+        }
+        return nodes++;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,94 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class KeywordMatcherTest {
+
+    /*
+     * Testing strategy for KeywordMatcher:
+     * 
+     * Partition as follows:
+     * - words: empty list, one word, many words sharing prefixes, word with
+     *   non-word characters, the empty word, uppercase word
+     * - text: empty, only non-word characters, starting with a non-word
+     *   character, ASCII, non-ASCII
+     * - match: whole word, prefix of a word, word that is a prefix of the text word
+     * Differential: randomized words and text compared against the
+     * split-based Variant 3 of Filter.containing.
+     */
+
+    // Variant 3 of Filter.containing, for one tweet text
+    private static boolean splitMatches(String text, List<String> words) {
+        List<String> lowerCaseWords = new ArrayList<>();
+        for (String word : words) {
+            lowerCaseWords.add(word.toLowerCase());
+        }
+        for (String tweetWord : text.toLowerCase().split("\\W+")) {
+            if (lowerCaseWords.contains(tweetWord)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final String ALPHABET = "abAB_1 #.-@\u00e9\u0130\u212a";
+
+    @Test
+    public void testWholeWordsOnly() {
+        KeywordMatcher matcher = new KeywordMatcher(Arrays.asList("talk", "TALKS", "rive", "#hype"));
+        assertTrue("expected whole word", matcher.matches("rivest talk in 30 minutes"));
+        assertTrue("expected case-insensitive", matcher.matches("Talks!"));
+        assertFalse("expected no prefix match", matcher.matches("rivest talking"));
+        assertFalse("expected non-word characters never to match", matcher.matches("#hype"));
+        assertFalse("expected empty list to match nothing", new KeywordMatcher(Collections.emptyList()).matches("talk"));
+    }
+
+    @Test
+    public void testEmptyWord() {
+        KeywordMatcher matcher = new KeywordMatcher(Arrays.asList(""));
+        for (String text : Arrays.asList("", "#!", "#a", "a#", "a", " \u00e9", "\u00e9x", "\u212a")) {
+            assertEquals("expected split semantics for [" + text + "]",
+                    splitMatches(text, Arrays.asList("")), matcher.matches(text));
+        }
+    }
+
+    @Test
+    public void testForWordsCaches() {
+        List<String> words = Arrays.asList("talk", "rivest");
+        assertSame("expected cached matcher", KeywordMatcher.forWords(words),
+                KeywordMatcher.forWords(new ArrayList<>(words)));
+    }
+
+    @Test
+    public void testRandomizedAgainstSplit() {
+        Random random = new Random(6005);
+        for (int round = 0; round < 5000; round++) {
+            List<String> words = new ArrayList<>();
+            for (int w = random.nextInt(5); w > 0; w--) {
+                words.add(randomString(random, 3));
+            }
+            String text = randomString(random, 20);
+            assertEquals("expected split semantics for " + words + " in [" + text + "]",
+                    splitMatches(text, words), new KeywordMatcher(words).matches(text));
+        }
+    }
+
+    private static String randomString(Random random, int maxLength) {
+        StringBuilder string = new StringBuilder();
+        for (int i = random.nextInt(maxLength + 1); i > 0; i--) {
+            string.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return string.toString();
+    }
+}
@@ -0,0 +1,98 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram counts nonnegative values, such as latencies in
+ * nanoseconds, in log-linear buckets, in the style of HdrHistogram.
+ * 
+ * Values below 2^SUB_BUCKET_BITS are counted exactly. Larger values fall in
+ * one of 2^SUB_BUCKET_BITS equal sub-buckets of their power-of-two range, so
+ * a reported percentile is within 1 / 2^SUB_BUCKET_BITS (about 3%) of the
+ * true value. Memory is fixed, whatever the number of values.
+ * 
+ * Safe for use by multiple threads; recording is lock-free.
+ */
+public class LatencyHistogram {
+
+    /** Bits of precision within each power-of-two range. */
+    static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // exact values, then one range per power of two from 2^SUB_BUCKET_BITS to 2^62
+    private static final int RANGES = 1 + 63 - SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(RANGES * SUB_BUCKETS);
+
+    /**
+     * Count a value.
+     * 
+     * @param value
+     *            value to count; negative values are counted as 0
+     */
+    public void record(long value) {
+        counts.incrementAndGet(bucket(Math.max(0, value)));
+    }
+
+    /**
+     * @return number of values counted
+     */
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * @param percentile
+     *            percentile, in [0, 100]
+     * @return an upper bound, within the histogram's precision, on the value
+     *         at that percentile of the counted values; 0 if none are counted
+     */
+    public long percentile(double percentile) {
+        long[] snapshot = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return highestValue(i);
+            }
+        }
+        return highestValue(snapshot.length - 1);
+    }
+
+    // index of the bucket counting value >= 0
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        // value is in [2^k, 2^(k+1)) for k = SUB_BUCKET_BITS + range
+        int range = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> range) - SUB_BUCKETS;
+        return SUB_BUCKETS + range * SUB_BUCKETS + sub;
+    }
+
+    // largest value counted by bucket index
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int range = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        long sub = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub) << range) + (1L << range) - 1;
+    }
+}
@@ -0,0 +1,259 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * MentionGraph is a weighted directed graph of who mentions whom, built in a
+ * single pass over tweets.
+ * 
+ * Authors and mentioned users share one dictionary of case-folded usernames
+ * numbered densely from 0. There is an edge from author a to user u iff some
+ * tweet by a mentions u, as Extract.getMentionedUsers defines mentions; its
+ * weight is the number of such mentions, counting a user mentioned twice in
+ * one tweet twice. Graphs built over separate shards of tweets can be merged.
+ * 
+ * Not safe for use by multiple threads.
+ */
+public class MentionGraph {
+
+    /**
+     * Receives edges from forEachEdge.
+     */
+    public interface EdgeVisitor {
+        /**
+         * @param author
+         *            id of the mentioning author
+         * @param mentioned
+         *            id of the mentioned user
+         * @param count
+         *            number of mentions, > 0
+         */
+        void edge(int author, int mentioned, long count);
+    }
+
+    private final UsernameTable users = new UsernameTable();
+    // mentions[id] is the number of times user id is mentioned
+    private long[] mentions = new long[16];
+    // edge table, open addressing: keys[h] is (author << 32 | mentioned) + 1, or 0 if empty
+    private long[] keys = new long[64];
+    private long[] counts = new long[64];
+    private int edges = 0;
+
+    private int currentAuthor;
+    private final MentionScanner.Sink sink = (text, start, end) -> addMention(currentAuthor, users.intern(text, start, end), 1);
+
+    /**
+     * Make an empty graph.
+     */
+    public MentionGraph() {
+    }
+
+    /**
+     * Make the graph of a list of tweets.
+     * 
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method
+     * @return the graph of their mentions
+     */
+    public static MentionGraph of(List<Tweet> tweets) {
+        MentionGraph graph = new MentionGraph();
+        for (Tweet tweet : tweets) {
+            graph.add(tweet);
+        }
+        return graph;
+    }
+
+    /**
+     * Add a tweet's mentions to the graph.
+     * 
+     * @param tweet
+     *            tweet whose id differs from every tweet already added
+     */
+    public void add(Tweet tweet) {
+        String author = tweet.getAuthor();
+        currentAuthor = users.intern(author, 0, author.length());
+        MentionScanner.scan(tweet.getText(), sink);
+    }
+
+    /**
+     * Add another graph's edges to this one, as if every tweet added to it had
+     * been added here.
+     * 
+     * @param other
+     *            graph over tweets disjoint from this one's; not modified
+     * @return this graph
+     */
+    public MentionGraph merge(MentionGraph other) {
+        int[] ids = new int[other.users.size()];
+        for (int id = 0; id < ids.length; id++) {
+            ids[id] = users.intern(other.users.username(id));
+        }
+        other.forEachEdge((author, mentioned, count) -> addMention(ids[author], ids[mentioned], count));
+        return this;
+    }
+
+    /**
+     * @return number of distinct users, authors or mentioned
+     */
+    public int userCount() {
+        return users.size();
+    }
+
+    /**
+     * @return number of distinct (author, mentioned user) edges
+     */
+    public int edgeCount() {
+        return edges;
+    }
+
+    /**
+     * @param id
+     *            user id, in [0, userCount())
+     * @return the case-folded username with that id
+     */
+    public String username(int id) {
+        return users.username(id);
+    }
+
+    /**
+     * @param username
+     *            Twitter username, any case
+     * @return the id of username, or -1 if it is in no added tweet as author
+     *         or mention
+     */
+    public int id(String username) {
+        return users.find(username, 0, username.length());
+    }
+
+    /**
+     * @param username
+     *            Twitter username, any case
+     * @return number of times username is mentioned
+     */
+    public long mentionCount(String username) {
+        int id = id(username);
+        return id < 0 ? 0 : mentionsOf(id);
+    }
+
+    /**
+     * @param author
+     *            Twitter username, any case
+     * @param mentioned
+     *            Twitter username, any case
+     * @return number of times author mentions mentioned
+     */
+    public long edgeWeight(String author, String mentioned) {
+        int from = id(author);
+        int to = id(mentioned);
+        if (from < 0 || to < 0) {
+            return 0;
+        }
+        int h = probe(key(from, to));
+        return keys[h] == 0 ? 0 : counts[h];
+    }
+
+    /**
+     * Visit every edge once, in no particular order.
+     * 
+     * @param visitor
+     *            receives each edge
+     */
+    public void forEachEdge(EdgeVisitor visitor) {
+        for (int h = 0; h < keys.length; h++) {
+            if (keys[h] != 0) {
+                long key = keys[h] - 1;
+                visitor.edge((int) (key >>> 32), (int) key, counts[h]);
+            }
+        }
+    }
+
+    /**
+     * @param k
+     *            number of users, >= 0
+     * @return the (at most) k most-mentioned usernames, most-mentioned first,
+     *         ties broken alphabetically; only mentioned users are included
+     */
+    public List<String> topMentioned(int k) {
+        PriorityQueue<Integer> top = new PriorityQueue<>((a, b) -> compareMentioned(b, a));
+        for (int id = 0; id < users.size(); id++) {
+            if (mentionsOf(id) > 0) {
+                top.add(id);
+                if (top.size() > k) {
+                    top.poll();
+                }
+            }
+        }
+        List<String> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            result.add(users.username(top.poll()));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    // orders ids by descending mentions, then ascending username
+    private int compareMentioned(int a, int b) {
+        int byCount = Long.compare(mentionsOf(b), mentionsOf(a));
+        return byCount != 0 ? byCount : users.username(a).compareTo(users.username(b));
+    }
+
+    // users interned only as authors may lie beyond the end of mentions
+    private long mentionsOf(int id) {
+        return id < mentions.length ? mentions[id] : 0;
+    }
+
+    private void addMention(int author, int mentioned, long count) {
+        if (mentioned >= mentions.length || author >= mentions.length) {
+            mentions = Arrays.copyOf(mentions, Math.max(mentions.length * 2, Math.max(author, mentioned) + 1));
+        }
+        mentions[mentioned] += count;
+
+        long key = key(author, mentioned);
+        int h = probe(key);
+        if (keys[h] == 0) {
+            if (2 * (edges + 1) > keys.length) {
+                rehash();
+                h = probe(key);
+            }
+            keys[h] = key;
+            edges++;
+        }
+        counts[h] += count;
+    }
+
+    private static long key(int author, int mentioned) {
+        return (((long) author << 32) | (mentioned & 0xFFFFFFFFL)) + 1;
+    }
+
+    // slot holding key, or the empty slot where it belongs
+    private int probe(long key) {
+        int mask = keys.length - 1;
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        for (int h = (int) (mixed ^ (mixed >>> 32)) & mask; ; h = (h + 1) & mask) {
+            if (keys[h] == key || keys[h] == 0) {
+                return h;
+            }
+        }
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new long[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int h = probe(oldKeys[i]);
+                keys[h] = oldKeys[i];
+                counts[h] = oldCounts[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class MentionGraphTest {
+
+    /*
+     * Testing strategy for MentionGraph and HeavyHitters:
+     * 
+     * Partition as follows:
+     * - tweets: none, no mentions, repeated mention within one tweet,
+     *   mention differing in case from the author
+     * - merge: disjoint shards, overlapping users
+     * - HeavyHitters capacity: at least the distinct users (exact), smaller,
+     *   much smaller (username dictionary compacted)
+     * - HeavyHitters merge: disjoint summaries, itself (rejected)
+     * Graph results are compared against Extract.getMentionedUsers and
+     * counts made directly with the mention regex.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "@Ben @ben hi", d1);
+    private static final Tweet tweet2 = new Tweet(2, "Ben", "@ALYSSA email me at ben@mit.edu", d1);
+    private static final Tweet tweet3 = new Tweet(3, "cy", "no mentions", d1);
+
+    private static List<Tweet> skewedTweets(Random random, int size) {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int id = 0; id < size; id++) {
+            // user k is mentioned with probability proportional to 1 / (k + 1)
+            int user = (int) Math.floor(Math.pow(50, random.nextDouble())) - 1;
+            tweets.add(new Tweet(id, "author" + random.nextInt(10), "hi @user" + user, d1));
+        }
+        return tweets;
+    }
+
+    private static Map<String, Long> exactCounts(List<Tweet> tweets) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Tweet tweet : tweets) {
+            MentionScanner.scan(tweet.getText(),
+                    (text, start, end) -> counts.merge(text.substring(start, end).toLowerCase(), 1L, Long::sum));
+        }
+        return counts;
+    }
+
+    @Test
+    public void testEdgesAndCounts() {
+        MentionGraph graph = MentionGraph.of(Arrays.asList(tweet1, tweet2, tweet3));
+        assertEquals("expected repeated mention counted twice", 2, graph.edgeWeight("ALYSSA", "ben"));
+        assertEquals("expected edge from ben", 1, graph.edgeWeight("ben", "alyssa"));
+        assertEquals("expected no edge", 0, graph.edgeWeight("cy", "ben"));
+        assertEquals("expected two edges", 2, graph.edgeCount());
+        assertEquals("expected three users", 3, graph.userCount());
+        assertEquals("expected mention count", 2, graph.mentionCount("Ben"));
+        assertEquals("expected most-mentioned first", Arrays.asList("ben", "alyssa"), graph.topMentioned(5));
+    }
+
+    @Test
+    public void testMentionedUsersMatchExtract() {
+        List<Tweet> tweets = skewedTweets(new Random(1), 500);
+        MentionGraph graph = MentionGraph.of(tweets);
+        Set<String> mentioned = new HashSet<>(graph.topMentioned(Integer.MAX_VALUE));
+        assertEquals("expected Extract.getMentionedUsers", Extract.getMentionedUsers(tweets), mentioned);
+        for (Map.Entry<String, Long> count : exactCounts(tweets).entrySet()) {
+            assertEquals("expected count of " + count.getKey(), (long) count.getValue(), graph.mentionCount(count.getKey()));
+        }
+    }
+
+    @Test
+    public void testMergeShards() {
+        List<Tweet> tweets = skewedTweets(new Random(2), 1000);
+        MentionGraph whole = MentionGraph.of(tweets);
+        MentionGraph merged = MentionGraph.of(tweets.subList(0, 400)).merge(MentionGraph.of(tweets.subList(400, 1000)));
+        assertEquals("expected same edges", whole.edgeCount(), merged.edgeCount());
+        whole.forEachEdge((author, mentioned, count) -> assertEquals("expected same weight", count,
+                merged.edgeWeight(whole.username(author), whole.username(mentioned))));
+        assertEquals("expected same ranking", whole.topMentioned(10), merged.topMentioned(10));
+    }
+
+    @Test
+    public void testHeavyHittersExactWhenLargeEnough() {
+        List<Tweet> tweets = skewedTweets(new Random(3), 2000);
+        HeavyHitters heavyHitters = new HeavyHitters(64);
+        tweets.forEach(heavyHitters::add);
+        Map<String, Long> exact = exactCounts(tweets);
+        for (HeavyHitters.Entry entry : heavyHitters.top(64)) {
+            assertEquals("expected exact count", (long) exact.get(entry.username()), entry.count());
+            assertEquals("expected no error", 0, entry.error());
+        }
+    }
+
+    @Test
+    public void testHeavyHittersBoundsAndMerge() {
+        List<Tweet> tweets = skewedTweets(new Random(4), 5000);
+        Map<String, Long> exact = exactCounts(tweets);
+        HeavyHitters left = new HeavyHitters(10);
+        HeavyHitters right = new HeavyHitters(10);
+        tweets.subList(0, 2500).forEach(left::add);
+        tweets.subList(2500, 5000).forEach(right::add);
+        HeavyHitters merged = left.merge(right);
+
+        assertEquals("expected total", 5000, merged.total());
+        List<HeavyHitters.Entry> top = merged.top(10);
+        for (HeavyHitters.Entry entry : top) {
+            long actual = exact.getOrDefault(entry.username(), 0L);
+            assertTrue("expected upper bound for " + entry, entry.count() >= actual);
+            assertTrue("expected lower bound for " + entry, entry.count() - entry.error() <= actual);
+        }
+        assertEquals("expected heaviest user found", "user0", top.get(0).username());
+    }
+
+    @Test
+    public void testHeavyHittersDictionaryBounded() {
+        HeavyHitters heavyHitters = new HeavyHitters(10);
+        Instant timestamp = Instant.parse("2016-02-17T10:00:00Z");
+        for (int i = 0; i < 100_000; i++) {
+            heavyHitters.add(new Tweet(i, "alyssa", "@Heavy @user" + i, timestamp));
+        }
+        assertTrue("expected bounded dictionary, got " + heavyHitters.dictionarySize(),
+                heavyHitters.dictionarySize() <= Math.max(64, HeavyHitters.DICTIONARY_FACTOR * 10));
+        HeavyHitters.Entry top = heavyHitters.top(1).get(0);
+        assertEquals("expected heaviest user found", "heavy", top.username());
+        assertTrue("expected upper bound", top.count() >= 100_000);
+        assertTrue("expected lower bound", top.count() - top.error() <= 100_000);
+        assertEquals("expected total", 200_000, heavyHitters.total());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHeavyHittersRejectsSelfMerge() {
+        HeavyHitters heavyHitters = new HeavyHitters(10);
+        heavyHitters.offer("alyssa", 1);
+        heavyHitters.merge(heavyHitters);
+    }
+}
@@ -0,0 +1,159 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * MentionScanner finds username-mentions in tweet text without regular
+ * expressions.
+ * 
+ * A mention is "@" followed by one or more username characters, where the "@"
+ * is not immediately preceded by a username character. This is exactly the
+ * rule of the pattern (?<!\w)@(\w+), so bitdiddle@mit.edu does not mention mit.
+ * Username characters are the ASCII letters, digits and underscore.
+ */
+final class MentionScanner {
+
+    /**
+     * Receives the mentions found by scan.
+     */
+    interface Sink {
+        /**
+         * Called once per mention, in text order.
+         * 
+         * @param text
+         *            the scanned text
+         * @param start
+         *            index of the first username character (just after the "@")
+         * @param end
+         *            index just past the last username character; end > start
+         */
+        void mention(String text, int start, int end);
+    }
+
+    /**
+     * Receives the mentions found by scanning UTF-8 bytes.
+     */
+    interface ByteSink {
+        /**
+         * Called once per mention, in text order.
+         * 
+         * @param bytes
+         *            the buffer holding the scanned text
+         * @param start
+         *            index of the first username byte (just after the "@")
+         * @param end
+         *            index just past the last username byte; end > start
+         */
+        void mention(ByteBuffer bytes, int start, int end);
+    }
+
+    private MentionScanner() {
+        // static methods only
+    }
+
+    /**
+     * @param c
+     *            a character
+     * @return true iff c is a username character, i.e. matches \w
+     */
+    static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    /**
+     * @param c
+     *            a username character
+     * @return c with ASCII letters lowercased
+     */
+    static char fold(char c) {
+        return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /**
+     * Report every mention in text to sink.
+     * 
+     * @param text
+     *            tweet text
+     * @param sink
+     *            receives each mention's bounds, in text order
+     */
+    static void scan(String text, Sink sink) {
+        int length = text.length();
+        boolean afterWordChar = false;
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c == '@' && !afterWordChar) {
+                int start = i + 1;
+                int end = start;
+                while (end < length && isWordChar(text.charAt(end))) {
+                    end++;
+                }
+                if (end > start) {
+                    sink.mention(text, start, end);
+                    // the username run ends at a non-word character or the end of text
+                    i = end;
+                    afterWordChar = true;
+                    continue;
+                }
+                afterWordChar = false;
+            } else {
+                afterWordChar = isWordChar(c);
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Report every mention in UTF-8 text to sink. Username characters are
+     * ASCII, so every byte of a multi-byte character is a non-username
+     * character, and the mentions found are those of the decoded text.
+     * 
+     * @param bytes
+     *            buffer holding tweet text as UTF-8; read with absolute gets,
+     *            so its position is not changed
+     * @param start
+     *            index of the first byte of the text
+     * @param end
+     *            index just past the last byte of the text
+     * @param sink
+     *            receives each mention's byte bounds, in text order
+     */
+    static void scan(ByteBuffer bytes, int start, int end, ByteSink sink) {
+        boolean afterWordChar = false;
+        int i = start;
+        while (i < end) {
+            byte b = bytes.get(i);
+            if (b == '@' && !afterWordChar) {
+                int first = i + 1;
+                int last = first;
+                while (last < end && isWordByte(bytes.get(last))) {
+                    last++;
+                }
+                if (last > first) {
+                    sink.mention(bytes, first, last);
+                    i = last;
+                    afterWordChar = true;
+                    continue;
+                }
+                afterWordChar = false;
+            } else {
+                afterWordChar = isWordByte(b);
+            }
+            i++;
+        }
+    }
+
+    /**
+     * @param b
+     *            a byte of UTF-8 text
+     * @return true iff b is a username character; never true for part of a
+     *         multi-byte character
+     */
+    static boolean isWordByte(byte b) {
+        return b >= 0 && isWordChar((char) b);
+    }
+}
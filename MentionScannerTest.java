@@ -0,0 +1,101 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class MentionScannerTest {
+
+    /*
+     * Testing strategy for MentionScanner and UsernameTable:
+     * 
+     * Partition the text as follows:
+     * - mention at start, middle, end of text
+     * - "@" preceded by a username character (email address), by "@", by other
+     * - "@" followed by nothing, by a non-username character
+     * - mixed case, repeated mentions
+     * Differential: randomized text compared against the regex
+     * (?<!\w)@(\w+) that Extract.getMentionedUsers used to apply.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Pattern MENTION = Pattern.compile("(?<!\\w)@(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    // the alphabet leans on characters at the boundary of \w
+    private static final String ALPHABET = "@@@aZz_09 .-#\u00e9\u00c9\u0130\n";
+
+    private static Set<String> regexMentions(List<String> texts) {
+        Set<String> mentions = new HashSet<>();
+        for (String text : texts) {
+            Matcher matcher = MENTION.matcher(text);
+            while (matcher.find()) {
+                mentions.add(matcher.group(1).toLowerCase());
+            }
+        }
+        return mentions;
+    }
+
+    private static Set<String> scannerMentions(List<String> texts) {
+        UsernameTable usernames = new UsernameTable();
+        for (String text : texts) {
+            MentionScanner.scan(text, usernames::intern);
+        }
+        return usernames.toSet();
+    }
+
+    @Test
+    public void testBoundaries() {
+        List<String> texts = List.of("@alice hi", "hi @Bob!", "end @carol", "bitdiddle@mit.edu",
+                "@@dave", "a@erin", "@ alone", "@", "@Frank @FRANK @frank");
+        Set<String> expected = Set.of("alice", "bob", "carol", "dave", "frank");
+        assertEquals("expected regex behavior", regexMentions(texts), scannerMentions(texts));
+        assertEquals("expected mentions", expected, scannerMentions(texts));
+    }
+
+    @Test
+    public void testRandomizedAgainstRegex() {
+        Random random = new Random(6005);
+        for (int round = 0; round < 2000; round++) {
+            List<String> texts = new ArrayList<>();
+            for (int t = random.nextInt(4); t >= 0; t--) {
+                StringBuilder text = new StringBuilder();
+                for (int i = random.nextInt(40); i > 0; i--) {
+                    text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+                }
+                texts.add(text.toString());
+            }
+            assertEquals("expected regex behavior on " + texts, regexMentions(texts), scannerMentions(texts));
+        }
+    }
+
+    @Test
+    public void testUsernameTableIdsStable() {
+        UsernameTable usernames = new UsernameTable();
+        int john = usernames.intern("John");
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("expected dense ids", i + 1, usernames.intern("user" + i));
+        }
+        assertEquals("expected same id after growth", john, usernames.intern("JOHN"));
+        assertEquals("expected lowercased name", "john", usernames.username(john));
+        assertEquals("expected size", 1001, usernames.size());
+    }
+
+    @Test
+    public void testGetMentionedUsersMatchesScanner() {
+        Tweet tweet = new Tweet(1, "alyssa", "@Ben and @ben email ben@mit.edu", d1);
+        assertEquals("expected one user", Set.of("ben"), Extract.getMentionedUsers(List.of(tweet)));
+    }
+}
@@ -0,0 +1,89 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class ParallelFilterTest {
+
+    /*
+     * Testing strategy for ParallelFilter:
+     * 
+     * Partition as follows:
+     * - list: below threshold, above threshold, above the default threshold,
+     *   not random-access
+     * - chunk size: 1, not a multiple of 64, larger than the list
+     * - executor: fork-join pool, fixed thread pool
+     * Every result is compared against the sequential Filter method.
+     */
+
+    private static final Instant START = Instant.parse("2016-02-17T00:00:00Z");
+    private static final Duration SPAN = Duration.ofDays(1);
+
+    private static final List<Tweet> TWEETS = new TweetGenerator(6005, 200, 50, 0.1).tweets(20_000, START, SPAN);
+    private static final List<Tweet> LARGE = new TweetGenerator(6005, 200, 50, 0.1)
+            .tweets(ParallelFilter.DEFAULT_THRESHOLD + 5000, START, SPAN);
+
+    private static void assertMatchesFilter(ParallelFilter parallel, List<Tweet> tweets) {
+        Timespan timespan = new Timespan(START.plus(Duration.ofHours(3)), START.plus(Duration.ofHours(9)));
+        List<String> words = Arrays.asList("w1", "W2A", "absent");
+        assertEquals("expected Filter.writtenBy", Filter.writtenBy(tweets, "USER7"), parallel.writtenBy(tweets, "USER7"));
+        assertEquals("expected Filter.inTimespan", Filter.inTimespan(tweets, timespan), parallel.inTimespan(tweets, timespan));
+        assertEquals("expected Filter.containing", Filter.containing(tweets, words), parallel.containing(tweets, words));
+    }
+
+    @Test
+    public void testForkJoinDefaults() {
+        assertMatchesFilter(ParallelFilter.forkJoin(), LARGE);
+    }
+
+    @Test
+    public void testDefaultsRunInParallel() {
+        AtomicInteger tasks = new AtomicInteger();
+        ParallelFilter parallel = new ParallelFilter(command -> {
+            tasks.incrementAndGet();
+            ForkJoinPool.commonPool().execute(command);
+        });
+        assertMatchesFilter(parallel, LARGE);
+        int chunks = (LARGE.size() + ParallelFilter.DEFAULT_CHUNK_SIZE - 1) / ParallelFilter.DEFAULT_CHUNK_SIZE;
+        assertEquals("expected one task per chunk for each method", 3 * chunks, tasks.get());
+    }
+
+    @Test
+    public void testChunkSizes() {
+        for (int chunkSize : new int[] { 1, 100, 4097, 50_000 }) {
+            assertMatchesFilter(new ParallelFilter(ForkJoinPool.commonPool(), 0, chunkSize), TWEETS);
+        }
+    }
+
+    @Test
+    public void testThreadPoolExecutor() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            assertMatchesFilter(new ParallelFilter(executor, 1000, 777), TWEETS);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSequentialFallbacks() {
+        ParallelFilter parallel = new ParallelFilter(command -> fail("expected no parallel task"), 1 << 20, 64);
+        assertMatchesFilter(parallel, TWEETS);
+        assertMatchesFilter(new ParallelFilter(command -> fail("expected no parallel task"), 0, 64),
+                new LinkedList<>(TWEETS.subList(0, 1000)));
+    }
+}
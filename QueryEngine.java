@@ -0,0 +1,331 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * QueryEngine runs TweetQuery conjunctions over a list of tweets in one fused
+ * pass, without materializing the intermediate lists that chaining Filter
+ * calls would.
+ * 
+ * For each query it makes a Plan: predicates are estimated for selectivity
+ * (exactly from an index when one is supplied, otherwise from a sample of the
+ * tweets) and evaluated cheapest-first, where a predicate's rank is its
+ * per-tweet cost divided by the fraction of tweets it rejects. When an index
+ * can enumerate a small enough candidate set, the pass runs over those
+ * candidates instead of the whole list. Plan.explain() shows the choice.
+ * 
+ * The engine is safe for use by multiple threads as long as the tweets and
+ * indexes it was given are not modified.
+ */
+public class QueryEngine {
+
+    /** Number of evenly spaced tweets examined to estimate a predicate's selectivity. */
+    static final int SAMPLE_SIZE = 64;
+
+    /** An index drives the pass only if it yields at most this fraction of the tweets. */
+    static final double MAX_DRIVER_FRACTION = 0.5;
+
+    // relative per-tweet evaluation costs
+    private static final double AUTHOR_COST = 1;
+    private static final double TIMESPAN_COST = 1;
+    private static final double WORDS_COST = 20;
+
+    private final List<Tweet> tweets;
+    private final AuthorIndex authorIndex;
+    private final TimeIndex timeIndex;
+    private final TweetIndex wordIndex;
+
+    /**
+     * Make an engine that plans from sampled selectivity only.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by the engine
+     */
+    public QueryEngine(List<Tweet> tweets) {
+        this(tweets, null, null, null);
+    }
+
+    /**
+     * Make an engine that may use indexes over the tweets.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by the engine
+     * @param authorIndex
+     *            index of exactly these tweets in this order, or null
+     * @param timeIndex
+     *            index of exactly these tweets in this order, or null
+     * @param wordIndex
+     *            index of exactly these tweets in this order, or null
+     * @throws IllegalArgumentException
+     *             if an index does not cover the same number of tweets
+     */
+    public QueryEngine(List<Tweet> tweets, AuthorIndex authorIndex, TimeIndex timeIndex, TweetIndex wordIndex) {
+        this.tweets = tweets;
+        this.authorIndex = authorIndex;
+        this.timeIndex = timeIndex;
+        this.wordIndex = wordIndex;
+        checkCovers(authorIndex == null ? null : authorIndex.tweets(), "author index");
+        checkCovers(timeIndex == null ? null : timeIndex.tweets(), "time index");
+        checkCovers(wordIndex == null ? null : wordIndex.tweets(), "word index");
+    }
+
+    private void checkCovers(List<Tweet> indexed, String name) {
+        if (indexed != null && indexed.size() != tweets.size()) {
+            throw new IllegalArgumentException(name + " covers " + indexed.size() + " tweets, expected " + tweets.size());
+        }
+    }
+
+    /**
+     * Run a query.
+     * 
+     * @param query
+     *            query to run
+     * @return all and only the tweets that satisfy query, in the same order
+     *         as in the input list
+     */
+    public List<Tweet> run(TweetQuery query) {
+        return plan(query).execute();
+    }
+
+    /**
+     * Choose how to run a query, without running it.
+     * 
+     * @param query
+     *            query to plan
+     * @return the plan for query
+     */
+    public Plan plan(TweetQuery query) {
+        List<Predicate> predicates = new ArrayList<>();
+        query.author().ifPresent(author -> predicates.add(new AuthorPredicate(author)));
+        query.timespan().ifPresent(timespan -> predicates.add(new TimespanPredicate(timespan)));
+        query.words().ifPresent(words -> predicates.add(new WordsPredicate(words)));
+
+        for (Predicate predicate : predicates) {
+            int indexed = predicate.indexedCount();
+            predicate.estimate = indexed >= 0 ? indexed : sampledCount(predicate);
+        }
+
+        Predicate driver = null;
+        for (Predicate predicate : predicates) {
+            if (predicate.indexedCount() >= 0 && predicate.estimate <= MAX_DRIVER_FRACTION * tweets.size()
+                    && (driver == null || predicate.estimate < driver.estimate)) {
+                driver = predicate;
+            }
+        }
+        predicates.remove(driver);
+        predicates.sort(Comparator.comparingDouble(this::rank));
+        return new Plan(driver, predicates);
+    }
+
+    // estimated matching tweets, from predicate's hit rate on an evenly spaced sample
+    private double sampledCount(Predicate predicate) {
+        int size = tweets.size();
+        if (size == 0) {
+            return 0;
+        }
+        int samples = Math.min(SAMPLE_SIZE, size);
+        int hits = 0;
+        for (int i = 0; i < samples; i++) {
+            if (predicate.test(tweets.get((int) ((long) i * size / samples)))) {
+                hits++;
+            }
+        }
+        // smoothed so that a predicate never looks perfectly selective or useless
+        return size * (hits + 1.0) / (samples + 2.0);
+    }
+
+    private double rank(Predicate predicate) {
+        double selectivity = tweets.isEmpty() ? 0 : Math.min(1, predicate.estimate / tweets.size());
+        return predicate.cost / Math.max(1e-9, 1 - selectivity);
+    }
+
+    /**
+     * A chosen evaluation order for one query.
+     */
+    public final class Plan {
+
+        private final Predicate driver;
+        private final List<Predicate> filters;
+
+        private Plan(Predicate driver, List<Predicate> filters) {
+            this.driver = driver;
+            this.filters = Collections.unmodifiableList(filters);
+        }
+
+        /**
+         * @return the tweets satisfying the planned query, in input order
+         */
+        public List<Tweet> execute() {
+            List<Tweet> result = new ArrayList<>();
+            if (driver != null) {
+                for (int position : driver.indexedPositions()) {
+                    Tweet tweet = tweets.get(position);
+                    if (passes(tweet)) {
+                        result.add(tweet);
+                    }
+                }
+            } else {
+                for (Tweet tweet : tweets) {
+                    if (passes(tweet)) {
+                        result.add(tweet);
+                    }
+                }
+            }
+            return result;
+        }
+
+        private boolean passes(Tweet tweet) {
+            for (Predicate filter : filters) {
+                if (!filter.test(tweet)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return a human-readable description of the plan, one step per line:
+         *         the source of candidate tweets, then each predicate in the
+         *         order it is evaluated, with its estimated matches
+         */
+        public String explain() {
+            StringBuilder explanation = new StringBuilder();
+            if (driver != null) {
+                explanation.append("index ").append(driver.description)
+                           .append(" (").append(Math.round(driver.estimate)).append(" candidates)\n");
+            } else {
+                explanation.append("scan all (").append(tweets.size()).append(" tweets)\n");
+            }
+            for (Predicate filter : filters) {
+                explanation.append("filter ").append(filter.description)
+                           .append(" (est. ").append(Math.round(filter.estimate))
+                           .append(" matches, cost ").append(filter.cost).append(")\n");
+            }
+            return explanation.toString();
+        }
+
+        @Override
+        public String toString() {
+            return explain();
+        }
+    }
+
+    /*
+     * One conjunct of a query. estimate is the expected number of tweets in
+     * the whole list that satisfy it, filled in while planning.
+     */
+    private abstract static class Predicate {
+        final String description;
+        final double cost;
+        double estimate;
+
+        Predicate(String description, double cost) {
+            this.description = description;
+            this.cost = cost;
+        }
+
+        abstract boolean test(Tweet tweet);
+
+        // number of matches, or an upper bound on it, from an index; -1 if there is no index
+        abstract int indexedCount();
+
+        // ascending positions of the matches; only called if indexedCount() >= 0
+        abstract int[] indexedPositions();
+    }
+
+    private final class AuthorPredicate extends Predicate {
+        private final String username;
+
+        AuthorPredicate(String username) {
+            super("writtenBy(" + username + ")", AUTHOR_COST);
+            this.username = username;
+        }
+
+        @Override
+        boolean test(Tweet tweet) {
+            return tweet.getAuthor().equalsIgnoreCase(username);
+        }
+
+        @Override
+        int indexedCount() {
+            return authorIndex == null ? -1 : authorIndex.count(username);
+        }
+
+        @Override
+        int[] indexedPositions() {
+            return authorIndex.positionsWrittenBy(username);
+        }
+    }
+
+    private final class TimespanPredicate extends Predicate {
+        private final Timespan timespan;
+
+        TimespanPredicate(Timespan timespan) {
+            super("inTimespan(" + timespan + ")", TIMESPAN_COST);
+            this.timespan = timespan;
+        }
+
+        @Override
+        boolean test(Tweet tweet) {
+            Instant timestamp = tweet.getTimestamp();
+            return !timestamp.isBefore(timespan.getStart()) && !timestamp.isAfter(timespan.getEnd());
+        }
+
+        @Override
+        int indexedCount() {
+            return timeIndex == null ? -1 : timeIndex.countInTimespan(timespan);
+        }
+
+        @Override
+        int[] indexedPositions() {
+            return timeIndex.positionsInTimespan(timespan);
+        }
+    }
+
+    private final class WordsPredicate extends Predicate {
+        private final List<String> words;
+        private final Set<String> lowerCaseWords = new HashSet<>();
+        private final KeywordMatcher matcher;
+
+        WordsPredicate(List<String> words) {
+            super("containing(" + words + ")", WORDS_COST);
+            this.words = words;
+            for (String word : words) {
+                lowerCaseWords.add(Tokenizer.normalize(word));
+            }
+            this.matcher = KeywordMatcher.forWords(words);
+        }
+
+        @Override
+        boolean test(Tweet tweet) {
+            return matcher.matches(tweet.getText());
+        }
+
+        @Override
+        int indexedCount() {
+            if (wordIndex == null) {
+                return -1;
+            }
+            // upper bound: a tweet containing several of the words is counted once per word
+            long total = 0;
+            for (String word : lowerCaseWords) {
+                total += wordIndex.count(word);
+            }
+            return (int) Math.min(total, tweets.size());
+        }
+
+        @Override
+        int[] indexedPositions() {
+            return wordIndex.positionsContaining(words);
+        }
+    }
+}
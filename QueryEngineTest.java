@@ -0,0 +1,122 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class QueryEngineTest {
+
+    /*
+     * Testing strategy for QueryEngine:
+     * 
+     * Partition as follows:
+     * - query: no predicates, one, two, all three
+     * - indexes: none, some, all
+     * - plan: full scan, driven by an index
+     * Differential: randomized corpora and queries compared against chained Filter calls.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final String[] AUTHORS = { "alyssa", "bbitdiddle", "ben", "cy", "dana" };
+    private static final String[] VOCABULARY = { "talk", "rivest", "hype", "so", "much", "a" };
+
+    private static List<Tweet> randomTweets(Random random, int size) {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int id = 0; id < size; id++) {
+            String text = VOCABULARY[random.nextInt(VOCABULARY.length)] + " "
+                    + VOCABULARY[random.nextInt(VOCABULARY.length)];
+            tweets.add(new Tweet(id, AUTHORS[random.nextInt(AUTHORS.length)], text, d1.plusSeconds(random.nextInt(100))));
+        }
+        return tweets;
+    }
+
+    private static List<Tweet> chained(List<Tweet> tweets, TweetQuery query) {
+        List<Tweet> result = tweets;
+        if (query.author().isPresent()) {
+            result = Filter.writtenBy(result, query.author().get());
+        }
+        if (query.timespan().isPresent()) {
+            result = Filter.inTimespan(result, query.timespan().get());
+        }
+        if (query.words().isPresent()) {
+            result = Filter.containing(result, query.words().get());
+        }
+        return result;
+    }
+
+    @Test
+    public void testEmptyQueryMatchesAll() {
+        List<Tweet> tweets = randomTweets(new Random(1), 10);
+        assertEquals("expected every tweet", tweets, new QueryEngine(tweets).run(TweetQuery.all()));
+    }
+
+    @Test
+    public void testExplainShowsIndexDriver() {
+        List<Tweet> tweets = randomTweets(new Random(2), 1000);
+        QueryEngine engine = new QueryEngine(tweets, new AuthorIndex(tweets), new TimeIndex(tweets), null);
+        TweetQuery query = TweetQuery.all().containing(Arrays.asList("talk")).writtenBy("ALYSSA")
+                .inTimespan(new Timespan(d1, d1.plusSeconds(5)));
+
+        QueryEngine.Plan plan = engine.plan(query);
+        String explanation = plan.explain();
+        assertTrue("expected time index to drive: " + explanation, explanation.startsWith("index inTimespan"));
+        assertTrue("expected author before words: " + explanation,
+                explanation.indexOf("writtenBy") < explanation.indexOf("containing"));
+        assertEquals("expected chained result", chained(tweets, query), plan.execute());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMismatchedIndexRejected() {
+        List<Tweet> tweets = randomTweets(new Random(3), 10);
+        new QueryEngine(tweets, null, new TimeIndex(tweets.subList(0, 5)), null);
+    }
+
+    @Test
+    public void testRandomizedAgainstChainedFilters() {
+        Random random = new Random(6005);
+        for (int round = 0; round < 50; round++) {
+            List<Tweet> tweets = randomTweets(random, random.nextInt(300));
+            QueryEngine[] engines = {
+                new QueryEngine(tweets),
+                new QueryEngine(tweets, new AuthorIndex(tweets), null, new TweetIndex(tweets)),
+                new QueryEngine(tweets, new AuthorIndex(tweets), new TimeIndex(tweets), new TweetIndex(tweets)),
+            };
+            for (int q = 0; q < 20; q++) {
+                TweetQuery query = TweetQuery.all();
+                if (random.nextBoolean()) {
+                    query = query.writtenBy(AUTHORS[random.nextInt(AUTHORS.length)].toUpperCase());
+                }
+                if (random.nextBoolean()) {
+                    Instant start = d1.plusSeconds(random.nextInt(100));
+                    query = query.inTimespan(new Timespan(start, start.plusSeconds(random.nextInt(60))));
+                }
+                if (random.nextBoolean()) {
+                    query = query.containing(Arrays.asList(VOCABULARY[random.nextInt(VOCABULARY.length)], "HYPE"));
+                }
+                List<Tweet> expected = chained(tweets, query);
+                for (QueryEngine engine : engines) {
+                    assertEquals("expected chained result for " + query + " via\n" + engine.plan(query),
+                            expected, engine.run(query));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testQueryEquality() {
+        Timespan timespan = new Timespan(d1, d2);
+        assertEquals("expected equal queries", TweetQuery.all().writtenBy("alyssa").inTimespan(timespan),
+                TweetQuery.all().inTimespan(timespan).writtenBy("alyssa"));
+    }
+}
@@ -0,0 +1,124 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RecordingMetrics keeps per-method totals and a latency histogram of every
+ * call it records.
+ * 
+ * Safe for use by multiple threads.
+ */
+public class RecordingMetrics implements TweetMetrics {
+
+    /**
+     * Totals for one method.
+     */
+    public static final class MethodStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder inputs = new LongAdder();
+        private final LongAdder outputs = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        /**
+         * @return number of calls
+         */
+        public long calls() {
+            return calls.sum();
+        }
+
+        /**
+         * @return number of calls that threw an exception
+         */
+        public long failures() {
+            return failures.sum();
+        }
+
+        /**
+         * @return total number of input tweets over all calls that returned
+         */
+        public long inputs() {
+            return inputs.sum();
+        }
+
+        /**
+         * @return total result size over all calls that returned
+         */
+        public long outputs() {
+            return outputs.sum();
+        }
+
+        /**
+         * @return outputs() / inputs(), or 0 if there were no inputs
+         */
+        public double selectivity() {
+            long in = inputs();
+            return in == 0 ? 0 : (double) outputs() / in;
+        }
+
+        /**
+         * @return total bytes allocated over all calls, or 0 if unmeasurable
+         */
+        public long allocatedBytes() {
+            return allocatedBytes.sum();
+        }
+
+        /**
+         * @return histogram of call latencies in nanoseconds
+         */
+        public LatencyHistogram latency() {
+            return latency;
+        }
+
+        @Override
+        public String toString() {
+            return "calls=" + calls() + " inputs=" + inputs() + " selectivity=" + String.format("%.4f", selectivity())
+                    + " allocated=" + allocatedBytes() + "B p50=" + latency.percentile(50) + "ns p99="
+                    + latency.percentile(99) + "ns max=" + latency.percentile(100) + "ns";
+        }
+    }
+
+    private final Map<String, MethodStats> methods = new ConcurrentHashMap<>();
+
+    @Override
+    public void record(String method, int inputSize, int outputSize, long nanos, long allocatedBytes) {
+        MethodStats stats = methods.computeIfAbsent(method, name -> new MethodStats());
+        stats.calls.increment();
+        if (outputSize < 0) {
+            stats.failures.increment();
+        } else {
+            stats.inputs.add(inputSize);
+            stats.outputs.add(outputSize);
+        }
+        if (allocatedBytes > 0) {
+            stats.allocatedBytes.add(allocatedBytes);
+        }
+        stats.latency.record(nanos);
+    }
+
+    /**
+     * @param method
+     *            name of a method, e.g. "Filter.containing"
+     * @return totals for that method; all zero if it has not been called
+     */
+    public MethodStats stats(String method) {
+        MethodStats stats = methods.get(method);
+        return stats == null ? new MethodStats() : stats;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, MethodStats> entry : new TreeMap<>(methods).entrySet()) {
+            report.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,137 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+/**
+ * ScanBackend classifies and case-folds tweet text, a block of characters at
+ * a time where the platform allows it.
+ * 
+ * get() returns VectorScanBackend, built on the incubating Vector API, when
+ * it was compiled from the vector/ source root, the jdk.incubator.vector
+ * module is present (run with --add-modules jdk.incubator.vector), and the
+ * system property twitter.scan is not "scalar"; otherwise it returns
+ * scalar(). The vector backend is loaded
+ * reflectively, so this class and its callers neither compile nor link
+ * against the incubator module.
+ * 
+ * Word characters are those of \w, the ASCII letters, digits and underscore,
+ * so the word runs found here are exactly the pieces between matches of \W+.
+ * 
+ * Implementations are stateless, so safe for use by multiple threads.
+ */
+abstract class ScanBackend {
+
+    private static final ScanBackend SCALAR = new Scalar();
+
+    private static final class Default {
+        static final ScanBackend INSTANCE = load();
+    }
+
+    private static ScanBackend load() {
+        if ("scalar".equals(System.getProperty("twitter.scan"))) {
+            return SCALAR;
+        }
+        try {
+            return (ScanBackend) Class.forName("twitter.VectorScanBackend").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | UnsupportedOperationException e) {
+            // no incubator module, or no usable vector shape on this platform
+            return SCALAR;
+        }
+    }
+
+    /**
+     * @return the fastest available backend
+     */
+    static ScanBackend get() {
+        return Default.INSTANCE;
+    }
+
+    /**
+     * @return the backend that examines one character at a time
+     */
+    static ScanBackend scalar() {
+        return SCALAR;
+    }
+
+    /**
+     * @return short description of this backend, e.g. for benchmark reports
+     */
+    abstract String name();
+
+    /**
+     * @param text
+     *            characters to search
+     * @param from
+     *            index to start searching at
+     * @param length
+     *            number of characters of text to search, from index 0
+     * @param c
+     *            character to find
+     * @return least index i in [from, length) with text[i] == c, or -1
+     */
+    abstract int indexOf(char[] text, int from, int length, char c);
+
+    /**
+     * Lowercase the ASCII letters of text[0, length) in place, and find its
+     * maximal runs of word characters, unless it has a non-ASCII character.
+     * 
+     * @param text
+     *            characters to fold and examine
+     * @param length
+     *            number of characters of text to examine, from index 0
+     * @param runs
+     *            receives the bounds of the runs, in order: run r is
+     *            text[runs[2r], runs[2r + 1]). Requires runs.length > length.
+     * @return number of runs found, or -1 if text[0, length) has a
+     *         non-ASCII character, in which case text and runs are left in
+     *         an unspecified state
+     */
+    abstract int foldWordRuns(char[] text, int length, int[] runs);
+
+    /**
+     * The one-character-at-a-time backend.
+     */
+    static final class Scalar extends ScanBackend {
+
+        @Override
+        String name() {
+            return "scalar";
+        }
+
+        @Override
+        int indexOf(char[] text, int from, int length, char c) {
+            for (int i = from; i < length; i++) {
+                if (text[i] == c) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        int foldWordRuns(char[] text, int length, int[] runs) {
+            int count = 0;
+            int i = 0;
+            while (i < length) {
+                while (i < length && !MentionScanner.isWordChar(text[i])) {
+                    if (text[i] >= 0x80) {
+                        return -1;
+                    }
+                    i++;
+                }
+                if (i == length) {
+                    break;
+                }
+                runs[2 * count] = i;
+                while (i < length && MentionScanner.isWordChar(text[i])) {
+                    text[i] = MentionScanner.fold(text[i]);
+                    i++;
+                }
+                runs[2 * count + 1] = i;
+                count++;
+            }
+            return count;
+        }
+    }
+}
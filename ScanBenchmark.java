@@ -0,0 +1,116 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for VectorScan on each ScanBackend, against the Filter and
+ * Extract methods it mirrors.
+ * 
+ * The forked JVM adds the jdk.incubator.vector module; the "vector" backend
+ * fails setup rather than silently measuring scalar code if it is missing.
+ * The Filter and Extract baselines do not depend on the backend, so they are
+ * in ScanBenchmark.Baseline and run once per corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ScanBenchmark {
+
+    private static final Instant START = Instant.parse("2016-02-17T00:00:00Z");
+    private static final Duration SPAN = Duration.ofDays(1);
+
+    @Param({ "1000", "100000" })
+    public int corpusSize;
+
+    @Param({ "1", "1000" })
+    public int wordListLength;
+
+    @Param({ "scalar", "vector" })
+    public String backendName;
+
+    private List<Tweet> tweets;
+    private List<String> words;
+    private ScanBackend backend;
+
+    @Setup
+    public void setUp() {
+        TweetGenerator generator = new TweetGenerator(42, 10_000, 1000, 0.1);
+        tweets = generator.tweets(corpusSize, START, SPAN);
+        words = generator.words(wordListLength);
+        backend = backendName.equals("scalar") ? ScanBackend.scalar() : ScanBackend.get();
+        if (!backend.name().startsWith(backendName)) {
+            throw new IllegalStateException(backendName + " backend unavailable, got " + backend.name());
+        }
+    }
+
+    @Benchmark
+    public List<Tweet> containing() {
+        return VectorScan.containing(tweets, words, backend);
+    }
+
+    @Benchmark
+    public Set<String> getMentionedUsers() {
+        return VectorScan.getMentionedUsers(tweets, backend);
+    }
+
+    /**
+     * The Filter and Extract methods that VectorScan mirrors, on the same
+     * corpora.
+     */
+    @State(Scope.Benchmark)
+    @BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(1)
+    public static class Baseline {
+
+        @Param({ "1000", "100000" })
+        public int corpusSize;
+
+        @Param({ "1", "1000" })
+        public int wordListLength;
+
+        private List<Tweet> tweets;
+        private List<String> words;
+
+        @Setup
+        public void setUp() {
+            TweetGenerator generator = new TweetGenerator(42, 10_000, 1000, 0.1);
+            tweets = generator.tweets(corpusSize, START, SPAN);
+            words = generator.words(wordListLength);
+        }
+
+        @Benchmark
+        public List<Tweet> containingFilter() {
+            return Filter.containing(tweets, words);
+        }
+
+        @Benchmark
+        public Set<String> getMentionedUsersExtract() {
+            return Extract.getMentionedUsers(tweets);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * TimeIndex is a timestamp-sorted index over a fixed list of tweets.
+ * 
+ * It answers Filter.inTimespan queries with two binary searches over
+ * primitive timestamps, then puts the matching slice back into input order.
+ * Counting the tweets in a timespan allocates nothing.
+ * 
+ * Immutable, so safe for use by multiple threads once constructed.
+ */
+public class TimeIndex {
+
+    private final List<Tweet> tweets;
+    /*
+     * Timestamps in ascending order, as epoch seconds plus nanosecond
+     * adjustment, compared seconds first. A single long[] of epoch nanoseconds
+     * would only reach about 292 years either side of 1970, while an Instant
+     * (and so a tweet timestamp or timespan edge) spans +/-1 billion years;
+     * two parallel arrays keep every Instant exact at 12 bytes per tweet.
+     */
+    private final long[] seconds;
+    private final int[] nanos;
+    // order[i] is the input position of the tweet with the i-th smallest timestamp
+    private final int[] order;
+
+    /**
+     * Make an index of a list of tweets.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this
+     *            constructor. The index keeps a copy, so later changes to the
+     *            list are not reflected.
+     */
+    public TimeIndex(List<Tweet> tweets) {
+        this.tweets = Collections.unmodifiableList(new ArrayList<>(tweets));
+        int size = this.tweets.size();
+
+        long[] inputSeconds = new long[size];
+        int[] inputNanos = new int[size];
+        int[] order = new int[size];
+        for (int position = 0; position < size; position++) {
+            Instant timestamp = this.tweets.get(position).getTimestamp();
+            inputSeconds[position] = timestamp.getEpochSecond();
+            inputNanos[position] = timestamp.getNano();
+            order[position] = position;
+        }
+        sort(order, new int[size], 0, size, inputSeconds, inputNanos);
+
+        this.seconds = new long[size];
+        this.nanos = new int[size];
+        for (int i = 0; i < size; i++) {
+            seconds[i] = inputSeconds[order[i]];
+            nanos[i] = inputNanos[order[i]];
+        }
+        this.order = order;
+    }
+
+    /**
+     * @return the indexed tweets, in their original order; unmodifiable
+     */
+    public List<Tweet> tweets() {
+        return tweets;
+    }
+
+    /**
+     * Find tweets that were sent during a particular timespan.
+     * 
+     * @param timespan
+     *            timespan
+     * @return the same list Filter.inTimespan(tweets(), timespan) returns: all
+     *         and only the indexed tweets sent during the timespan, inclusive
+     *         of both ends, in their original order.
+     */
+    public List<Tweet> inTimespan(Timespan timespan) {
+        int[] positions = positionsInTimespan(timespan);
+        List<Tweet> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(tweets.get(position));
+        }
+        return result;
+    }
+
+    /**
+     * Count tweets that were sent during a particular timespan, without
+     * allocating.
+     * 
+     * @param timespan
+     *            timespan
+     * @return inTimespan(timespan).size()
+     */
+    public int countInTimespan(Timespan timespan) {
+        return upperBound(timespan.getEnd()) - lowerBound(timespan.getStart());
+    }
+
+    /**
+     * @param timespan
+     *            timespan
+     * @return ascending positions in tweets() of the tweets sent during the
+     *         timespan; a fresh array the caller may modify
+     */
+    int[] positionsInTimespan(Timespan timespan) {
+        int from = lowerBound(timespan.getStart());
+        int to = upperBound(timespan.getEnd());
+        if (from >= to) {
+            return new int[0];
+        }
+        int[] positions = Arrays.copyOfRange(order, from, to);
+        Arrays.sort(positions);
+        return positions;
+    }
+
+    // first sorted index whose timestamp is not before instant
+    private int lowerBound(Instant instant) {
+        long second = instant.getEpochSecond();
+        int nano = instant.getNano();
+        int low = 0;
+        int high = seconds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(seconds[mid], nanos[mid], second, nano) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // first sorted index whose timestamp is after instant
+    private int upperBound(Instant instant) {
+        long second = instant.getEpochSecond();
+        int nano = instant.getNano();
+        int low = 0;
+        int high = seconds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(seconds[mid], nanos[mid], second, nano) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(long secondA, int nanoA, long secondB, int nanoB) {
+        int bySecond = Long.compare(secondA, secondB);
+        return bySecond != 0 ? bySecond : Integer.compare(nanoA, nanoB);
+    }
+
+    /*
+     * Stable merge sort of positions[from, to) by (seconds, nanos) of each
+     * position, using scratch as working space.
+     */
+    private static void sort(int[] positions, int[] scratch, int from, int to, long[] seconds, int[] nanos) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sort(positions, scratch, from, mid, seconds, nanos);
+        sort(positions, scratch, mid, to, seconds, nanos);
+        int left = positions[mid - 1];
+        int right = positions[mid];
+        if (compare(seconds[left], nanos[left], seconds[right], nanos[right]) <= 0) {
+            return; // already in order
+        }
+        System.arraycopy(positions, from, scratch, from, to - from);
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < mid && compare(seconds[scratch[i]], nanos[scratch[i]],
+                    seconds[scratch[j]], nanos[scratch[j]]) <= 0)) {
+                positions[k] = scratch[i++];
+            } else {
+                positions[k] = scratch[j++];
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TimeIndexTest {
+
+    /*
+     * Testing strategy for TimeIndex:
+     * 
+     * Partition as follows:
+     * - corpus: empty, nonempty, tweets sharing a timestamp
+     * - timespan: before all tweets, after all tweets, covering all, zero length
+     * - tweets exactly on the start or end boundary
+     * - timestamps differing only in nanoseconds
+     * Differential: randomized corpora and timespans compared against Filter.inTimespan.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T12:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d3);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d1);
+    private static final Tweet tweet3 = new Tweet(3, "alyssa", "@john hello", d2);
+    private static final Tweet tweet4 = new Tweet(4, "bbitdiddle", "email me at bitdiddle@mit.edu", d1);
+
+    @Test
+    public void testEmptyCorpus() {
+        TimeIndex index = new TimeIndex(Collections.emptyList());
+        assertTrue("expected empty list", index.inTimespan(new Timespan(d1, d3)).isEmpty());
+        assertEquals("expected zero count", 0, index.countInTimespan(new Timespan(d1, d3)));
+    }
+
+    @Test
+    public void testBoundariesInclusiveAndInputOrder() {
+        TimeIndex index = new TimeIndex(Arrays.asList(tweet1, tweet2, tweet3, tweet4));
+        assertEquals("expected input order", Arrays.asList(tweet2, tweet3, tweet4),
+                index.inTimespan(new Timespan(d1, d2)));
+        assertEquals("expected both tweets at instant", Arrays.asList(tweet2, tweet4),
+                index.inTimespan(new Timespan(d1, d1)));
+        assertEquals("expected all tweets", 4, index.countInTimespan(new Timespan(d1, d3)));
+        assertEquals("expected none after", 0, index.countInTimespan(new Timespan(d3.plusNanos(1), d3.plusSeconds(1))));
+        assertEquals("expected none before", 0, index.countInTimespan(new Timespan(d1.minusSeconds(1), d1.minusNanos(1))));
+    }
+
+    @Test
+    public void testRandomizedAgainstFilter() {
+        Random random = new Random(6005);
+        for (int round = 0; round < 200; round++) {
+            List<Tweet> tweets = new ArrayList<>();
+            int size = random.nextInt(50);
+            for (int id = 0; id < size; id++) {
+                tweets.add(new Tweet(id, "alyssa", "tweet", d1.plusSeconds(random.nextInt(10)).plusNanos(random.nextInt(3))));
+            }
+            TimeIndex index = new TimeIndex(tweets);
+            for (int query = 0; query < 20; query++) {
+                Instant start = d1.plusSeconds(random.nextInt(12) - 1).plusNanos(random.nextInt(3));
+                Instant end = start.plusSeconds(random.nextInt(4)).plusNanos(random.nextInt(3));
+                Timespan timespan = new Timespan(start, end);
+                List<Tweet> expected = Filter.inTimespan(tweets, timespan);
+                assertEquals("expected Filter.inTimespan result", expected, index.inTimespan(timespan));
+                assertEquals("expected count", expected.size(), index.countInTimespan(timespan));
+            }
+        }
+    }
+}
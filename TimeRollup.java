@@ -0,0 +1,428 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * TimeRollup answers Extract-style questions about arbitrary time windows of
+ * a feed of tweets without rescanning the tweets.
+ * 
+ * Tweets are grouped into buckets of a fixed width by timestamp. Each bucket
+ * keeps its earliest and latest timestamps and its mention counts, so a
+ * window query merges the summaries of the buckets it covers completely.
+ * The (at most two) buckets it covers partly are scanned instead, from a
+ * compact per-tweet record of timestamps and mention ids, so that windows
+ * include exactly the tweets Filter.inTimespan would: both ends inclusive.
+ * 
+ * With a retention period, buckets that end more than the retention before
+ * the latest timestamp seen are expired, giving a sliding window; queries
+ * then cover only the retained tweets, and tweets that would fall into an
+ * expired bucket are dropped. Mentioned usernames are numbered in a
+ * dictionary that is compacted once fewer than half of its usernames are
+ * still mentioned by a retained tweet, so memory stays proportional to the
+ * retained tweets rather than to every username ever seen.
+ * 
+ * Buckets are keyed by nanoseconds since the epoch. Timestamps more than
+ * about 292 years from the epoch saturate into the first or last bucket,
+ * which are always scanned rather than summarized, so any Instant, including
+ * Instant.MIN and Instant.MAX as window ends, is handled exactly.
+ * 
+ * Not safe for use by multiple threads.
+ */
+public class TimeRollup {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    // epoch seconds outside [MIN_SECOND, MAX_SECOND] saturate as nanoseconds
+    private static final long MIN_SECOND = Long.MIN_VALUE / NANOS_PER_SECOND;
+    private static final long MAX_SECOND = Long.MAX_VALUE / NANOS_PER_SECOND - 1;
+
+    private final long widthNanos;
+    private final long retentionNanos; // negative to keep every bucket
+    private final long firstKey;
+    private final long lastKey;
+    private final TreeMap<Long, Bucket> buckets = new TreeMap<>();
+    private UsernameTable users = new UsernameTable();
+    // references[id] is the number of retained mentions of username id
+    private int[] references = new int[16];
+    private int referencedUsers = 0;
+    private Instant latestSeen = null;
+    // buckets with keys below this have expired
+    private long expiredBelow = Long.MIN_VALUE;
+
+    // mention ids of the tweet being added
+    private int[] mentionBuffer = new int[16];
+    private int mentionCount;
+    private final MentionScanner.Sink sink = (text, start, end) -> {
+        if (mentionCount == mentionBuffer.length) {
+            mentionBuffer = Arrays.copyOf(mentionBuffer, mentionBuffer.length * 2);
+        }
+        mentionBuffer[mentionCount++] = users.intern(text, start, end);
+    };
+
+    /**
+     * Make an empty rollup that keeps every bucket.
+     * 
+     * @param bucketWidth
+     *            width of each bucket, positive and at most about 292 years
+     */
+    public TimeRollup(Duration bucketWidth) {
+        this(bucketWidth, null);
+    }
+
+    /**
+     * Make an empty sliding rollup.
+     * 
+     * @param bucketWidth
+     *            width of each bucket, positive and at most about 292 years
+     * @param retention
+     *            how long before the latest timestamp seen buckets are kept,
+     *            or null to keep every bucket
+     */
+    public TimeRollup(Duration bucketWidth, Duration retention) {
+        if (bucketWidth.isNegative() || bucketWidth.isZero()
+                || bucketWidth.compareTo(Duration.ofNanos(Long.MAX_VALUE)) > 0) {
+            throw new IllegalArgumentException("bucket width must be positive and fit in a long of nanoseconds: " + bucketWidth);
+        }
+        if (retention != null && retention.isNegative()) {
+            throw new IllegalArgumentException("retention must be nonnegative: " + retention);
+        }
+        this.widthNanos = bucketWidth.toNanos();
+        if (retention == null) {
+            this.retentionNanos = -1;
+        } else if (retention.compareTo(Duration.ofNanos(Long.MAX_VALUE)) > 0) {
+            this.retentionNanos = Long.MAX_VALUE;
+        } else {
+            this.retentionNanos = retention.toNanos();
+        }
+        this.firstKey = Math.floorDiv(Long.MIN_VALUE, widthNanos);
+        this.lastKey = Math.floorDiv(Long.MAX_VALUE, widthNanos);
+    }
+
+    /*
+     * One bucket: per-tweet timestamps and mention ids, plus summaries.
+     * mentionIds[mentionStart[i], mentionStart[i + 1]) are the mentions of tweet i.
+     */
+    private static final class Bucket {
+        int size = 0;
+        long[] seconds = new long[4];
+        int[] nanos = new int[4];
+        int[] mentionStart = new int[5];
+        int[] mentionIds = new int[4];
+        Instant earliest = null;
+        Instant latest = null;
+        final Map<Integer, Long> mentionCounts = new HashMap<>();
+
+        void add(Instant timestamp, int[] mentions, int mentionCount) {
+            if (size == seconds.length) {
+                seconds = Arrays.copyOf(seconds, size * 2);
+                nanos = Arrays.copyOf(nanos, size * 2);
+                mentionStart = Arrays.copyOf(mentionStart, size * 2 + 1);
+            }
+            int from = mentionStart[size];
+            if (from + mentionCount > mentionIds.length) {
+                mentionIds = Arrays.copyOf(mentionIds, Math.max(mentionIds.length * 2, from + mentionCount));
+            }
+            System.arraycopy(mentions, 0, mentionIds, from, mentionCount);
+            for (int i = 0; i < mentionCount; i++) {
+                mentionCounts.merge(mentions[i], 1L, Long::sum);
+            }
+            seconds[size] = timestamp.getEpochSecond();
+            nanos[size] = timestamp.getNano();
+            size++;
+            mentionStart[size] = from + mentionCount;
+            if (earliest == null || timestamp.isBefore(earliest)) {
+                earliest = timestamp;
+            }
+            if (latest == null || timestamp.isAfter(latest)) {
+                latest = timestamp;
+            }
+        }
+
+        // true iff tweet i was sent during [start, end]
+        boolean inside(int i, Instant start, Instant end) {
+            long second = seconds[i];
+            int nano = nanos[i];
+            boolean afterStart = second > start.getEpochSecond()
+                    || (second == start.getEpochSecond() && nano >= start.getNano());
+            boolean beforeEnd = second < end.getEpochSecond()
+                    || (second == end.getEpochSecond() && nano <= end.getNano());
+            return afterStart && beforeEnd;
+        }
+    }
+
+    /**
+     * Add a tweet.
+     * 
+     * @param tweet
+     *            tweet whose id differs from every tweet already added
+     * @return true if the tweet was added, false if it falls into an expired
+     *         bucket and was dropped
+     */
+    public boolean add(Tweet tweet) {
+        Instant timestamp = tweet.getTimestamp();
+        long key = bucketKey(timestamp);
+        if (key < expiredBelow) {
+            return false;
+        }
+        mentionCount = 0;
+        MentionScanner.scan(tweet.getText(), sink);
+        for (int i = 0; i < mentionCount; i++) {
+            int id = mentionBuffer[i];
+            if (id >= references.length) {
+                references = Arrays.copyOf(references, Math.max(references.length * 2, id + 1));
+            }
+            if (references[id]++ == 0) {
+                referencedUsers++;
+            }
+        }
+        buckets.computeIfAbsent(key, k -> new Bucket()).add(timestamp, mentionBuffer, mentionCount);
+
+        if (latestSeen == null || timestamp.isAfter(latestSeen)) {
+            latestSeen = timestamp;
+            if (retentionNanos >= 0) {
+                long cutoff = epochNanos(latestSeen);
+                // saturate rather than wrap below Long.MIN_VALUE
+                cutoff = cutoff < Long.MIN_VALUE + retentionNanos ? Long.MIN_VALUE : cutoff - retentionNanos;
+                expireBelow(Math.floorDiv(cutoff, widthNanos));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Expire every bucket that ends at or before cutoff.
+     * 
+     * @param cutoff
+     *            instant; buckets whose every possible timestamp is before it
+     *            are dropped
+     */
+    public void expireBefore(Instant cutoff) {
+        // bucket k covers [k * width, (k + 1) * width) nanoseconds
+        expireBelow(bucketKey(cutoff));
+    }
+
+    private void expireBelow(long key) {
+        if (key <= expiredBelow) {
+            return;
+        }
+        expiredBelow = key;
+        Map<Long, Bucket> expired = buckets.headMap(key, false);
+        for (Bucket bucket : expired.values()) {
+            for (int m = 0; m < bucket.mentionStart[bucket.size]; m++) {
+                if (--references[bucket.mentionIds[m]] == 0) {
+                    referencedUsers--;
+                }
+            }
+        }
+        expired.clear();
+        if (users.size() > 16 && 2 * referencedUsers < users.size()) {
+            compactUsers();
+        }
+    }
+
+    // renumber the still-referenced usernames densely and drop the rest
+    private void compactUsers() {
+        UsernameTable compacted = new UsernameTable();
+        int[] renumbered = new int[users.size()];
+        int[] compactedReferences = new int[Math.max(16, referencedUsers * 2)];
+        for (int id = 0; id < users.size(); id++) {
+            if (references[id] > 0) {
+                String username = users.username(id);
+                int newId = compacted.intern(username);
+                renumbered[id] = newId;
+                compactedReferences[newId] = references[id];
+            }
+        }
+        for (Bucket bucket : buckets.values()) {
+            for (int m = 0; m < bucket.mentionStart[bucket.size]; m++) {
+                bucket.mentionIds[m] = renumbered[bucket.mentionIds[m]];
+            }
+            Map<Integer, Long> counts = new HashMap<>(bucket.mentionCounts.size() * 2);
+            for (Map.Entry<Integer, Long> count : bucket.mentionCounts.entrySet()) {
+                counts.put(renumbered[count.getKey()], count.getValue());
+            }
+            bucket.mentionCounts.clear();
+            bucket.mentionCounts.putAll(counts);
+        }
+        users = compacted;
+        references = compactedReferences;
+    }
+
+    /**
+     * @return number of distinct usernames held in the dictionary, at most
+     *         twice the number mentioned by retained tweets once more than 16
+     *         have been seen
+     */
+    int dictionarySize() {
+        return users.size();
+    }
+
+    /**
+     * @return number of retained buckets
+     */
+    public int bucketCount() {
+        return buckets.size();
+    }
+
+    /**
+     * Count the retained tweets sent during a window.
+     * 
+     * @param window
+     *            timespan, inclusive at both ends
+     * @return Filter.inTimespan(retained, window).size()
+     */
+    public long count(Timespan window) {
+        long count = 0;
+        for (Map.Entry<Long, Bucket> entry : covering(window).entrySet()) {
+            Bucket bucket = entry.getValue();
+            if (isFull(entry.getKey(), window)) {
+                count += bucket.size;
+            } else {
+                for (int i = 0; i < bucket.size; i++) {
+                    if (bucket.inside(i, window.getStart(), window.getEnd())) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the time period spanned by the retained tweets sent during a window.
+     * 
+     * @param window
+     *            timespan, inclusive at both ends
+     * @return Extract.getTimespan(Filter.inTimespan(retained, window))
+     */
+    public Timespan getTimespan(Timespan window) {
+        long earliestSecond = Long.MAX_VALUE;
+        int earliestNano = 0;
+        long latestSecond = Long.MIN_VALUE;
+        int latestNano = -1;
+        for (Map.Entry<Long, Bucket> entry : covering(window).entrySet()) {
+            Bucket bucket = entry.getValue();
+            if (isFull(entry.getKey(), window)) {
+                Instant earliest = bucket.earliest;
+                Instant latest = bucket.latest;
+                if (compare(earliest.getEpochSecond(), earliest.getNano(), earliestSecond, earliestNano) < 0) {
+                    earliestSecond = earliest.getEpochSecond();
+                    earliestNano = earliest.getNano();
+                }
+                if (compare(latest.getEpochSecond(), latest.getNano(), latestSecond, latestNano) > 0) {
+                    latestSecond = latest.getEpochSecond();
+                    latestNano = latest.getNano();
+                }
+                continue;
+            }
+            for (int i = 0; i < bucket.size; i++) {
+                if (bucket.inside(i, window.getStart(), window.getEnd())) {
+                    if (compare(bucket.seconds[i], bucket.nanos[i], earliestSecond, earliestNano) < 0) {
+                        earliestSecond = bucket.seconds[i];
+                        earliestNano = bucket.nanos[i];
+                    }
+                    if (compare(bucket.seconds[i], bucket.nanos[i], latestSecond, latestNano) > 0) {
+                        latestSecond = bucket.seconds[i];
+                        latestNano = bucket.nanos[i];
+                    }
+                }
+            }
+        }
+        if (latestNano < 0) {
+            Instant now = Instant.now();
+            return new Timespan(now, now);
+        }
+        return new Timespan(Instant.ofEpochSecond(earliestSecond, earliestNano),
+                Instant.ofEpochSecond(latestSecond, latestNano));
+    }
+
+    /**
+     * Count mentions in the retained tweets sent during a window.
+     * 
+     * @param window
+     *            timespan, inclusive at both ends
+     * @return map from each username mentioned in those tweets, lowercased,
+     *         to its number of mentions; its key set is
+     *         Extract.getMentionedUsers(Filter.inTimespan(retained, window))
+     */
+    public Map<String, Long> mentionCounts(Timespan window) {
+        Map<Integer, Long> counts = new HashMap<>();
+        for (Map.Entry<Long, Bucket> entry : covering(window).entrySet()) {
+            Bucket bucket = entry.getValue();
+            if (isFull(entry.getKey(), window)) {
+                for (Map.Entry<Integer, Long> mention : bucket.mentionCounts.entrySet()) {
+                    counts.merge(mention.getKey(), mention.getValue(), Long::sum);
+                }
+                continue;
+            }
+            for (int i = 0; i < bucket.size; i++) {
+                if (bucket.inside(i, window.getStart(), window.getEnd())) {
+                    for (int m = bucket.mentionStart[i]; m < bucket.mentionStart[i + 1]; m++) {
+                        counts.merge(bucket.mentionIds[m], 1L, Long::sum);
+                    }
+                }
+            }
+        }
+        Map<String, Long> named = new HashMap<>(counts.size() * 2);
+        for (Map.Entry<Integer, Long> count : counts.entrySet()) {
+            named.put(users.username(count.getKey()), count.getValue());
+        }
+        return named;
+    }
+
+    /**
+     * Get usernames mentioned in the retained tweets sent during a window.
+     * 
+     * @param window
+     *            timespan, inclusive at both ends
+     * @return Extract.getMentionedUsers(Filter.inTimespan(retained, window))
+     */
+    public Set<String> getMentionedUsers(Timespan window) {
+        return mentionCounts(window).keySet();
+    }
+
+    // buckets that may hold tweets sent during window
+    private NavigableMap<Long, Bucket> covering(Timespan window) {
+        return buckets.subMap(bucketKey(window.getStart()), true, bucketKey(window.getEnd()), true);
+    }
+
+    // true iff every possible timestamp of bucket key lies inside window
+    private boolean isFull(long key, Timespan window) {
+        if (key == firstKey || key == lastKey) {
+            // may hold saturated timestamps
+            return false;
+        }
+        long bucketStart = key * widthNanos;
+        long bucketLast = bucketStart + (widthNanos - 1);
+        return epochNanos(window.getStart()) <= bucketStart && bucketLast <= epochNanos(window.getEnd());
+    }
+
+    private long bucketKey(Instant instant) {
+        return Math.floorDiv(epochNanos(instant), widthNanos);
+    }
+
+    // nanoseconds since the epoch, saturated to the range of a long
+    private static long epochNanos(Instant instant) {
+        long second = instant.getEpochSecond();
+        if (second < MIN_SECOND) {
+            return Long.MIN_VALUE;
+        } else if (second > MAX_SECOND) {
+            return Long.MAX_VALUE;
+        }
+        return second * NANOS_PER_SECOND + instant.getNano();
+    }
+
+    private static int compare(long secondA, int nanoA, long secondB, int nanoB) {
+        int bySecond = Long.compare(secondA, secondB);
+        return bySecond != 0 ? bySecond : Integer.compare(nanoA, nanoB);
+    }
+}
@@ -0,0 +1,145 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TimeRollupTest {
+
+    /*
+     * Testing strategy for TimeRollup:
+     * 
+     * Partition as follows:
+     * - window: empty of tweets, inside one bucket, spanning many buckets,
+     *   ending exactly on a tweet's timestamp, aligned with bucket edges
+     * - window: open-ended, with Instant.MIN or Instant.MAX as an end
+     * - timestamps: with nanoseconds, before the epoch, beyond the range of
+     *   a long of nanoseconds
+     * - bucket width: whole minutes, sub-millisecond
+     * - retention: none, sliding (tweets expire, late tweets dropped,
+     *   username dictionary compacted)
+     * Every query is compared against Extract over Filter.inTimespan of the
+     * retained tweets.
+     */
+
+    private static final Instant START = Instant.parse("1969-12-31T23:00:00Z");
+
+    private static List<Tweet> randomTweets(Random random, int size) {
+        List<Tweet> tweets = new ArrayList<>();
+        String[] words = { "@alyssa", "@Ben", "hi", "x@mit.edu", "@cy" };
+        for (int id = 0; id < size; id++) {
+            Instant timestamp = START.plusSeconds(random.nextInt(7200)).plusNanos(random.nextInt(3) * 500_000_000L);
+            tweets.add(new Tweet(id, "alyssa", words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)],
+                    timestamp));
+        }
+        return tweets;
+    }
+
+    private static void assertMatchesExtract(List<Tweet> tweets, TimeRollup rollup, Timespan window) {
+        List<Tweet> inWindow = Filter.inTimespan(tweets, window);
+        assertEquals("expected count for " + window, inWindow.size(), rollup.count(window));
+        assertEquals("expected mentions for " + window, Extract.getMentionedUsers(inWindow), rollup.getMentionedUsers(window));
+        if (!inWindow.isEmpty()) {
+            Timespan expected = Extract.getTimespan(inWindow);
+            Timespan actual = rollup.getTimespan(window);
+            assertEquals("expected start for " + window, expected.getStart(), actual.getStart());
+            assertEquals("expected end for " + window, expected.getEnd(), actual.getEnd());
+        }
+    }
+
+    @Test
+    public void testRandomWindowsMatchExtract() {
+        Random random = new Random(6005);
+        List<Tweet> tweets = randomTweets(random, 3000);
+        TimeRollup rollup = new TimeRollup(Duration.ofMinutes(5));
+        tweets.forEach(rollup::add);
+        for (int query = 0; query < 300; query++) {
+            Instant start;
+            if (query % 3 == 0) {
+                // a tweet's own timestamp, to exercise inclusive ends
+                start = tweets.get(random.nextInt(tweets.size())).getTimestamp();
+            } else {
+                start = START.plusSeconds(random.nextInt(7200) - 100).plusNanos(random.nextInt(3) * 500_000_000L);
+            }
+            Instant end = query % 5 == 0 ? start : start.plusSeconds(random.nextInt(3600));
+            assertMatchesExtract(tweets, rollup, new Timespan(start, end));
+        }
+        assertMatchesExtract(tweets, rollup, new Timespan(START, START.plus(Duration.ofMinutes(30))));
+    }
+
+    @Test
+    public void testMentionCounts() {
+        TimeRollup rollup = new TimeRollup(Duration.ofMinutes(1));
+        rollup.add(new Tweet(1, "alyssa", "@Ben @ben", START));
+        rollup.add(new Tweet(2, "alyssa", "@BEN", START.plusSeconds(90)));
+        Timespan all = new Timespan(START, START.plusSeconds(90));
+        assertEquals("expected three mentions", Long.valueOf(3), rollup.mentionCounts(all).get("ben"));
+        Timespan first = new Timespan(START, START.plusSeconds(89));
+        assertEquals("expected two mentions", Long.valueOf(2), rollup.mentionCounts(first).get("ben"));
+    }
+
+    @Test
+    public void testSlidingRetention() {
+        Random random = new Random(1);
+        TimeRollup rollup = new TimeRollup(Duration.ofMinutes(1), Duration.ofMinutes(10));
+        List<Tweet> tweets = new ArrayList<>();
+        for (int minute = 0; minute < 60; minute++) {
+            Tweet tweet = new Tweet(minute, "alyssa", "@user" + random.nextInt(5), START.plus(Duration.ofMinutes(minute)));
+            assertTrue("expected in-order tweet added", rollup.add(tweet));
+            tweets.add(tweet);
+        }
+        assertTrue("expected bounded buckets", rollup.bucketCount() <= 11);
+        assertFalse("expected late tweet dropped", rollup.add(new Tweet(100, "alyssa", "@late", START)));
+
+        List<Tweet> retained = Filter.inTimespan(tweets, new Timespan(START.plus(Duration.ofMinutes(49)), START.plus(Duration.ofHours(1))));
+        assertMatchesExtract(retained, rollup, new Timespan(START, START.plus(Duration.ofHours(1))));
+    }
+
+    @Test
+    public void testOpenEndedWindows() {
+        Random random = new Random(2);
+        List<Tweet> tweets = randomTweets(random, 500);
+        tweets.add(new Tweet(1000, "alyssa", "@far", Instant.MAX));
+        tweets.add(new Tweet(1001, "alyssa", "@past", Instant.MIN.plusNanos(1)));
+        tweets.add(new Tweet(1002, "alyssa", "@ben", Instant.parse("+100000-01-01T00:00:00Z")));
+        for (Duration width : new Duration[] { Duration.ofMinutes(1), Duration.ofNanos(1500) }) {
+            TimeRollup rollup = new TimeRollup(width);
+            tweets.forEach(rollup::add);
+            Instant middle = START.plusSeconds(3600);
+            assertMatchesExtract(tweets, rollup, new Timespan(middle, Instant.MAX));
+            assertMatchesExtract(tweets, rollup, new Timespan(Instant.MIN, middle));
+            assertMatchesExtract(tweets, rollup, new Timespan(Instant.MIN, Instant.MAX));
+            assertMatchesExtract(tweets, rollup, new Timespan(Instant.MAX, Instant.MAX));
+            assertMatchesExtract(tweets, rollup, new Timespan(middle, middle.plusNanos(2000)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroWidthRejected() {
+        new TimeRollup(Duration.ZERO);
+    }
+
+    @Test
+    public void testDictionaryBoundedByRetention() {
+        TimeRollup rollup = new TimeRollup(Duration.ofSeconds(1), Duration.ofSeconds(10));
+        for (int i = 0; i < 100_000; i++) {
+            rollup.add(new Tweet(i, "alyssa", "@user" + i, START.plusMillis(i)));
+        }
+        // 11 buckets of 1000 tweets, one distinct mention each
+        assertTrue("expected bounded buckets", rollup.bucketCount() <= 11);
+        assertTrue("expected bounded dictionary, got " + rollup.dictionarySize(), rollup.dictionarySize() <= 2 * 11_000);
+        Timespan all = new Timespan(Instant.MIN, Instant.MAX);
+        assertEquals(Long.valueOf(1), rollup.mentionCounts(all).get("user99999"));
+        assertNull("expected expired mention gone", rollup.mentionCounts(all).get("user0"));
+        assertEquals(rollup.count(all), rollup.getMentionedUsers(all).size());
+    }
+}
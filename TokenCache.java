@@ -0,0 +1,281 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * TokenCache remembers each tweet's words and mentions, so tweets that pass
+ * through containing and getMentionedUsers many times are tokenized once.
+ * 
+ * Entries are keyed by tweet id and weighed by their approximate heap size.
+ * When the total weight exceeds the cache's maximum, least recently used
+ * entries are evicted. An entry is reused only for a tweet with the same id
+ * and text. Hit, miss and eviction counts are kept for sizing the cache.
+ * 
+ * Mentions are case-folded as UsernameTable folds them, so they match
+ * Extract.getMentionedUsers whatever the default locale.
+ * 
+ * Safe for use by multiple threads. Large caches are split by tweet id into
+ * up to MAX_SEGMENTS segments, each locked separately and holding an equal
+ * share of the maximum weight, so that concurrent lookups mostly take
+ * different locks; LRU order is then kept per segment. Tokenizing on a miss
+ * holds no lock.
+ */
+public class TokenCache {
+
+    /**
+     * The words and mentions of one tweet text. Immutable.
+     */
+    public static final class TokenizedTweet {
+        private final String text;
+        private final String[] words;
+        private final String[] mentions;
+        private final long weight;
+
+        private TokenizedTweet(String text) {
+            this.text = text;
+            this.words = Tokenizer.words(text);
+            List<String> found = new ArrayList<>();
+            MentionScanner.scan(text, (t, start, end) -> found.add(UsernameTable.folded(t, start, end)));
+            this.mentions = found.toArray(new String[0]);
+
+            long bytes = ENTRY_OVERHEAD;
+            for (String word : words) {
+                bytes += STRING_OVERHEAD + word.length();
+            }
+            for (String mention : mentions) {
+                bytes += STRING_OVERHEAD + mention.length();
+            }
+            this.weight = bytes;
+        }
+
+        /**
+         * @return the words of the text, as Tokenizer.words returns them
+         */
+        public List<String> words() {
+            return Arrays.asList(words.clone());
+        }
+
+        /**
+         * @return the lowercased usernames mentioned in the text, in text
+         *         order, possibly repeated
+         */
+        public List<String> mentions() {
+            return Arrays.asList(mentions.clone());
+        }
+    }
+
+    // approximate heap bytes of an entry and of each String it holds, beyond character data
+    private static final long ENTRY_OVERHEAD = 128;
+    private static final long STRING_OVERHEAD = 48;
+
+    /** Maximum number of separately locked segments. */
+    static final int MAX_SEGMENTS = 16;
+    // a cache gets another segment only for each this many bytes of maximum weight
+    private static final long MIN_SEGMENT_WEIGHT = 1 << 16;
+
+    private final long maxWeight;
+    private final Segment[] segments;
+
+    /*
+     * One LRU segment; all fields are guarded by the segment's lock.
+     */
+    private static final class Segment {
+        final long maxWeight;
+        final LinkedHashMap<Long, TokenizedTweet> entries = new LinkedHashMap<>(16, 0.75f, true);
+        long weight = 0;
+        long hits = 0;
+        long misses = 0;
+        long evictions = 0;
+
+        Segment(long maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+    }
+
+    /**
+     * Make an empty cache.
+     * 
+     * @param maxWeight
+     *            maximum approximate heap bytes of the cached entries, >= 0
+     */
+    public TokenCache(long maxWeight) {
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("maxWeight must be nonnegative: " + maxWeight);
+        }
+        this.maxWeight = maxWeight;
+        // a power of two, so a segment is chosen by masking
+        int count = (int) Math.min(MAX_SEGMENTS, Math.max(1, Long.highestOneBit(maxWeight / MIN_SEGMENT_WEIGHT)));
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(maxWeight / count);
+        }
+    }
+
+    private Segment segmentFor(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return segments[(int) (h >>> 32) & (segments.length - 1)];
+    }
+
+    /**
+     * Get a tweet's words and mentions, tokenizing it only on a cache miss.
+     * 
+     * @param tweet
+     *            tweet
+     * @return the tokens of tweet's text
+     */
+    public TokenizedTweet get(Tweet tweet) {
+        Long id = tweet.getId();
+        String text = tweet.getText();
+        Segment segment = segmentFor(id);
+        synchronized (segment) {
+            TokenizedTweet cached = segment.entries.get(id);
+            if (cached != null && (cached.text == text || cached.text.equals(text))) {
+                segment.hits++;
+                return cached;
+            }
+            segment.misses++;
+        }
+
+        // tokenize without holding the lock, so a miss does not block other lookups
+        TokenizedTweet tokens = new TokenizedTweet(text);
+        synchronized (segment) {
+            TokenizedTweet replaced = segment.entries.put(id, tokens);
+            if (replaced != null) {
+                segment.weight -= replaced.weight;
+            }
+            segment.weight += tokens.weight;
+            Iterator<Map.Entry<Long, TokenizedTweet>> eldest = segment.entries.entrySet().iterator();
+            while (segment.weight > segment.maxWeight && eldest.hasNext()) {
+                segment.weight -= eldest.next().getValue().weight;
+                eldest.remove();
+                segment.evictions++;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Find tweets that contain certain words, using cached tokens.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @param words
+     *            a list of words, as for Filter.containing
+     * @return the same list Filter.containing(tweets, words) returns
+     */
+    public List<Tweet> containing(List<Tweet> tweets, List<String> words) {
+        Set<String> lowerCaseWords = new HashSet<>();
+        for (String word : words) {
+            lowerCaseWords.add(Tokenizer.normalize(word));
+        }
+        List<Tweet> result = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            for (String tweetWord : get(tweet).words) {
+                if (lowerCaseWords.contains(tweetWord)) {
+                    result.add(tweet);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get usernames mentioned in a list of tweets, using cached tokens.
+     * 
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     * @return the same set Extract.getMentionedUsers(tweets) returns
+     */
+    public Set<String> getMentionedUsers(List<Tweet> tweets) {
+        Set<String> mentionedUsers = new HashSet<>();
+        for (Tweet tweet : tweets) {
+            for (String mention : get(tweet).mentions) {
+                mentionedUsers.add(mention);
+            }
+        }
+        return mentionedUsers;
+    }
+
+    /**
+     * @return number of lookups that found a cached entry
+     */
+    public long hitCount() {
+        long hits = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                hits += segment.hits;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * @return number of lookups that had to tokenize
+     */
+    public long missCount() {
+        long misses = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                misses += segment.misses;
+            }
+        }
+        return misses;
+    }
+
+    /**
+     * @return number of entries evicted to respect the maximum weight
+     */
+    public long evictionCount() {
+        long evictions = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                evictions += segment.evictions;
+            }
+        }
+        return evictions;
+    }
+
+    /**
+     * @return number of cached entries
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return approximate heap bytes of the cached entries, at most the
+     *         maximum weight
+     */
+    public long weight() {
+        long weight = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                weight += segment.weight;
+            }
+        }
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenCache(size=" + size() + ", weight=" + weight() + "/" + maxWeight
+                + ", hits=" + hitCount() + ", misses=" + missCount() + ", evictions=" + evictionCount() + ")";
+    }
+}
@@ -0,0 +1,96 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Test;
+
+public class TokenCacheTest {
+
+    /*
+     * Testing strategy for TokenCache:
+     * 
+     * Partition as follows:
+     * - lookup: first (miss), repeated (hit), same id with different text (miss)
+     * - capacity: holds every tweet, holds some, holds none; one segment, many
+     * - default locale: root, Turkish (dotted and dotless i)
+     * Cached containing and getMentionedUsers are compared against Filter and Extract.
+     */
+
+    private static final Instant START = Instant.parse("2016-02-17T00:00:00Z");
+
+    private static final List<Tweet> TWEETS = new TweetGenerator(6005, 100, 20, 0.2).tweets(500, START, Duration.ofDays(1));
+
+    @Test
+    public void testMatchesFilterAndExtract() {
+        TokenCache cache = new TokenCache(1 << 24);
+        List<String> words = Arrays.asList("W1", "w2", "absent");
+        for (int pass = 0; pass < 2; pass++) {
+            assertEquals("expected Filter.containing", Filter.containing(TWEETS, words), cache.containing(TWEETS, words));
+            assertEquals("expected Extract.getMentionedUsers", Extract.getMentionedUsers(TWEETS),
+                    cache.getMentionedUsers(TWEETS));
+        }
+        assertEquals("expected one miss per tweet", TWEETS.size(), cache.missCount());
+        assertEquals("expected hits on the remaining lookups", 3 * TWEETS.size(), cache.hitCount());
+        assertEquals("expected no evictions", 0, cache.evictionCount());
+    }
+
+    @Test
+    public void testSameIdDifferentText() {
+        TokenCache cache = new TokenCache(1 << 20);
+        Tweet before = new Tweet(1, "alyssa", "@ben talk", START);
+        Tweet after = new Tweet(1, "alyssa", "@cy hype", START);
+        assertEquals("expected first mention", Arrays.asList("ben"), cache.get(before).mentions());
+        assertEquals("expected new mention", Arrays.asList("cy"), cache.get(after).mentions());
+        assertEquals("expected two misses", 2, cache.missCount());
+        assertEquals("expected one entry", 1, cache.size());
+    }
+
+    @Test
+    public void testEvictsToMaxWeight() {
+        TokenCache cache = new TokenCache(20_000);
+        cache.getMentionedUsers(TWEETS);
+        assertTrue("expected weight within bound", cache.weight() <= 20_000);
+        assertTrue("expected evictions", cache.evictionCount() > 0);
+        assertEquals("expected entries plus evictions to cover all tweets",
+                TWEETS.size(), cache.size() + cache.evictionCount());
+
+        TokenCache none = new TokenCache(0);
+        assertEquals("expected results without caching", Extract.getMentionedUsers(TWEETS), none.getMentionedUsers(TWEETS));
+        assertEquals("expected empty cache", 0, none.size());
+    }
+
+    @Test
+    public void testManySegments() {
+        TokenCache cache = new TokenCache(TokenCache.MAX_SEGMENTS << 16);
+        List<Tweet> tweets = new TweetGenerator(6005, 100, 20, 0.2).tweets(20_000, START, Duration.ofDays(1));
+        assertEquals("expected Extract.getMentionedUsers", Extract.getMentionedUsers(tweets), cache.getMentionedUsers(tweets));
+        assertTrue("expected weight within bound", cache.weight() <= TokenCache.MAX_SEGMENTS << 16);
+        assertTrue("expected evictions", cache.evictionCount() > 0);
+        assertEquals("expected entries plus evictions to cover all tweets",
+                tweets.size(), cache.size() + cache.evictionCount());
+    }
+
+    @Test
+    public void testTurkishLocale() {
+        Locale saved = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            TokenCache cache = new TokenCache(1 << 20);
+            Tweet tweet = new Tweet(1, "alyssa", "@IVAN @Ivan", START);
+            assertEquals("expected dotted i as in Extract", Arrays.asList("ivan", "ivan"), cache.get(tweet).mentions());
+            assertEquals("expected Extract.getMentionedUsers", Extract.getMentionedUsers(Arrays.asList(tweet)),
+                    cache.getMentionedUsers(Arrays.asList(tweet)));
+        } finally {
+            Locale.setDefault(saved);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Tokenizer holds the word rule of Filter.containing, and splits tweet text
+ * into the words it compares.
+ * 
+ * The words of a text are the pieces of its lowercased form between runs of
+ * non-word characters, exactly as text.toLowerCase(Locale.ROOT).split("\\W+")
+ * produces them (including the empty leading word of a text that starts with
+ * a non-word character). Lowercasing ignores the default locale, so that
+ * "TITLE" has the word "title" under a Turkish locale too.
+ * 
+ * Filter.containing matches through KeywordMatcher, which walks the text
+ * without building these words but takes lowerCase and isWordChar from here.
+ */
+final class Tokenizer {
+
+    private static final Pattern NON_WORD = Pattern.compile("\\W+");
+
+    private Tokenizer() {
+        // static methods only
+    }
+
+    /**
+     * @param text
+     *            tweet text
+     * @return the lowercased words of text, in text order, possibly repeated
+     */
+    static String[] words(String text) {
+        return NON_WORD.split(lowerCase(text));
+    }
+
+    /**
+     * @param word
+     *            a query word
+     * @return the form of word that compares equal to a token from words()
+     */
+    static String normalize(String word) {
+        return lowerCase(word);
+    }
+
+    /**
+     * @param text
+     *            tweet text or a query word
+     * @return text lowercased as words() lowercases it
+     */
+    static String lowerCase(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param c
+     *            a character
+     * @return true iff c is a word character, i.e. matches \w; the same
+     *         characters as in a username
+     */
+    static boolean isWordChar(char c) {
+        return MentionScanner.isWordChar(c);
+    }
+}
@@ -0,0 +1,327 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * TweetArena is an immutable collection of tweets stored without per-tweet
+ * objects, so that scanning tens of millions of tweets puts almost nothing on
+ * the garbage-collected heap.
+ *
+ * Ids and timestamps are kept in primitive arrays. Authors and texts are kept
+ * as UTF-8 in direct (off-heap) byte buffers. Each tweet records the offset
+ * and length of its text there, and the number of its author among the
+ * arena's distinct authors; each distinct author's bytes are stored once.
+ * ArenaFilter and ArenaExtract run the Filter and Extract operations directly
+ * over these bytes, comparing each distinct author once per query.
+ *
+ * The UTF-8 region is split into chunks of at most 1GB, since one buffer is
+ * limited to 2GB, and no author or text crosses a chunk boundary. As in
+ * TweetStore, an unpaired surrogate in an author or text is stored as '?'.
+ *
+ * Immutable, so safe for use by multiple threads.
+ */
+public class TweetArena {
+
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK_BYTES = 1L << CHUNK_BITS;
+
+    private final int size;
+    private final long[] ids;
+    private final long[] seconds;
+    private final int[] nanos;
+    // authorIds[i] is the number of tweet i's author, in order of first appearance
+    private final int[] authorIds;
+    // offsets into the UTF-8 region: chunk number << CHUNK_BITS | position in chunk
+    private final long[] textOffsets;
+    private final int[] textLengths;
+    // indexed by author number
+    private final long[] authorOffsets;
+    private final int[] authorLengths;
+    // asciiAuthor.get(a) iff every byte of author a is ASCII
+    private final BitSet asciiAuthor;
+    private final ByteBuffer[] chunks;
+    private final List<Tweet> view = new TweetList();
+
+    private TweetArena(List<Tweet> tweets) {
+        size = tweets.size();
+        ids = new long[size];
+        seconds = new long[size];
+        nanos = new int[size];
+        authorIds = new int[size];
+        textOffsets = new long[size];
+        textLengths = new int[size];
+        long[] offsets = new long[16];
+        int[] lengths = new int[16];
+        asciiAuthor = new BitSet();
+
+        // first pass: number the authors and lay out the UTF-8 region
+        Map<String, Integer> authorNumbers = new HashMap<>();
+        List<Long> chunkSizes = new ArrayList<>();
+        long used = 0; // bytes used in the last chunk
+        int index = 0;
+        for (Tweet tweet : tweets) {
+            ids[index] = tweet.getId();
+            seconds[index] = tweet.getTimestamp().getEpochSecond();
+            nanos[index] = tweet.getTimestamp().getNano();
+
+            String author = tweet.getAuthor();
+            int authors = authorNumbers.size();
+            Integer number = authorNumbers.putIfAbsent(author, authors);
+            if (number != null) {
+                authorIds[index] = number;
+            } else {
+                int length = TweetStore.utf8Length(author);
+                if (chunkSizes.isEmpty() || used + length > CHUNK_BYTES) {
+                    used = openChunk(chunkSizes, used, length);
+                }
+                if (authors == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, 2 * authors);
+                    lengths = Arrays.copyOf(lengths, 2 * authors);
+                }
+                authorIds[index] = authors;
+                offsets[authors] = ((long) (chunkSizes.size() - 1) << CHUNK_BITS) | used;
+                lengths[authors] = length;
+                asciiAuthor.set(authors, length == author.length());
+                used += length;
+            }
+
+            int length = TweetStore.utf8Length(tweet.getText());
+            if (chunkSizes.isEmpty() || used + length > CHUNK_BYTES) {
+                used = openChunk(chunkSizes, used, length);
+            }
+            textOffsets[index] = ((long) (chunkSizes.size() - 1) << CHUNK_BITS) | used;
+            textLengths[index] = length;
+            used += length;
+            index++;
+        }
+        if (!chunkSizes.isEmpty()) {
+            chunkSizes.set(chunkSizes.size() - 1, used);
+        }
+        authorOffsets = Arrays.copyOf(offsets, authorNumbers.size());
+        authorLengths = Arrays.copyOf(lengths, authorNumbers.size());
+
+        // second pass: copy the bytes off-heap
+        chunks = new ByteBuffer[chunkSizes.size()];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = ByteBuffer.allocateDirect(chunkSizes.get(i).intValue());
+        }
+        index = 0;
+        int written = 0; // authors are numbered in order of first appearance
+        for (Tweet tweet : tweets) {
+            if (authorIds[index] == written) {
+                put(authorOffsets[written++], tweet.getAuthor());
+            }
+            put(textOffsets[index], tweet.getText());
+            index++;
+        }
+    }
+
+    // close the open chunk at its used size and open one for a string of length bytes
+    private static long openChunk(List<Long> chunkSizes, long used, int length) {
+        if (length > CHUNK_BYTES) {
+            throw new IllegalArgumentException("string of " + length + " UTF-8 bytes exceeds arena chunk size");
+        }
+        if (!chunkSizes.isEmpty()) {
+            chunkSizes.set(chunkSizes.size() - 1, used);
+        }
+        chunkSizes.add(CHUNK_BYTES);
+        return 0;
+    }
+
+    private void put(long offset, String s) {
+        chunk(offset).put(position(offset), s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ByteBuffer chunk(long offset) {
+        return chunks[(int) (offset >>> CHUNK_BITS)];
+    }
+
+    private static int position(long offset) {
+        return (int) (offset & (CHUNK_BYTES - 1));
+    }
+
+    /**
+     * Copy a list of tweets into a new arena.
+     *
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method
+     * @return an arena holding the tweets, in the same order
+     * @throws IllegalArgumentException
+     *             if an author or text is longer than 1GB as UTF-8
+     */
+    public static TweetArena of(List<Tweet> tweets) {
+        return new TweetArena(tweets);
+    }
+
+    /**
+     * @return list view of the tweets in this arena, in their original order.
+     *         Unmodifiable and random-access; each get() builds a new Tweet.
+     */
+    public List<Tweet> tweets() {
+        return view;
+    }
+
+    /**
+     * @return number of tweets in this arena
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index
+     *            tweet position, in [0, size())
+     * @return id of the tweet at index
+     */
+    public long id(int index) {
+        return ids[checkIndex(index)];
+    }
+
+    /**
+     * @param index
+     *            tweet position, in [0, size())
+     * @return timestamp of the tweet at index
+     */
+    public Instant timestamp(int index) {
+        return Instant.ofEpochSecond(seconds[checkIndex(index)], nanos[index]);
+    }
+
+    /**
+     * @param index
+     *            tweet position, in [0, size())
+     * @return author of the tweet at index
+     */
+    public String author(int index) {
+        int author = authorIds[checkIndex(index)];
+        return decode(authorOffsets[author], authorLengths[author]);
+    }
+
+    /**
+     * @param index
+     *            tweet position, in [0, size())
+     * @return text of the tweet at index
+     */
+    public String text(int index) {
+        return decode(textOffsets[checkIndex(index)], textLengths[index]);
+    }
+
+    private String decode(long offset, int length) {
+        byte[] bytes = new byte[length];
+        chunk(offset).get(position(offset), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " out of [0, " + size + ")");
+        }
+        return index;
+    }
+
+    // epoch second of the timestamp of the tweet at index
+    long epochSecond(int index) {
+        return seconds[index];
+    }
+
+    // nanosecond adjustment of the timestamp of the tweet at index
+    int nano(int index) {
+        return nanos[index];
+    }
+
+    // number of the author of the tweet at index, an index into authorsNamed's result
+    int authorId(int index) {
+        return authorIds[index];
+    }
+
+    /**
+     * Compare each distinct author of the arena with a username once.
+     * 
+     * @param username
+     *            a username
+     * @param asciiUsername
+     *            username's bytes with ASCII letters lowercased, or null if
+     *            username is not all ASCII
+     * @return an array named such that named[authorId(index)] is true iff the
+     *         author of the tweet at index equals username ignoring case, in
+     *         the sense of String.equalsIgnoreCase
+     */
+    boolean[] authorsNamed(String username, byte[] asciiUsername) {
+        boolean[] named = new boolean[authorOffsets.length];
+        for (int author = 0; author < named.length; author++) {
+            named[author] = isNamed(author, username, asciiUsername);
+        }
+        return named;
+    }
+
+    private boolean isNamed(int author, String username, byte[] asciiUsername) {
+        if (asciiUsername == null || !asciiAuthor.get(author)) {
+            // non-ASCII characters may fold to ASCII ones, e.g. KELVIN SIGN to k
+            return decode(authorOffsets[author], authorLengths[author]).equalsIgnoreCase(username);
+        }
+        if (authorLengths[author] != asciiUsername.length) {
+            return false;
+        }
+        long offset = authorOffsets[author];
+        ByteBuffer chunk = chunk(offset);
+        int start = position(offset);
+        for (int i = 0; i < asciiUsername.length; i++) {
+            if (MentionScanner.fold((char) chunk.get(start + i)) != asciiUsername[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param index
+     *            tweet position, in [0, size())
+     * @param matcher
+     *            compiled word list
+     * @return true iff the text of the tweet at index contains one of
+     *         matcher's words
+     */
+    boolean textMatches(int index, KeywordMatcher matcher) {
+        long offset = textOffsets[index];
+        int start = position(offset);
+        return matcher.matches(chunk(offset), start, start + textLengths[index]);
+    }
+
+    /**
+     * Report every mention in the text of the tweet at index to sink.
+     *
+     * @param index
+     *            tweet position, in [0, size())
+     * @param sink
+     *            receives each mention's byte bounds, in text order
+     */
+    void scanMentions(int index, MentionScanner.ByteSink sink) {
+        long offset = textOffsets[index];
+        int start = position(offset);
+        MentionScanner.scan(chunk(offset), start, start + textLengths[index], sink);
+    }
+
+    private final class TweetList extends AbstractList<Tweet> implements RandomAccess {
+        @Override
+        public Tweet get(int index) {
+            return new Tweet(id(index), author(index), text(index), timestamp(index));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
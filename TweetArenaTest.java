@@ -0,0 +1,140 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TweetArenaTest {
+
+    /*
+     * Testing strategy for TweetArena, ArenaFilter and ArenaExtract:
+     * 
+     * Partition as follows:
+     * - arena size: 0, 1, >1
+     * - authors: repeated, differing only in case, non-ASCII (including ones
+     *   equal ignoring case to ASCII usernames)
+     * - text: empty, ASCII, multi-byte UTF-8, non-ASCII letters that lowercase
+     *   to ASCII word characters
+     * - timestamps: equal seconds with different nanos
+     * - writtenBy with a non-ASCII username over many tweets by few authors
+     * Differential: randomized corpora compared against Filter and Extract on
+     * the same tweets.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype @Alyssa", d2);
+    // author with KELVIN SIGN, equal ignoring case to "kevin"; text with Turkish dotted capital I
+    private static final Tweet tweet3 = new Tweet(3, "\u212Aevin", "caf\u00E9 @\u00E9t\u00E9 \u0130stanbul @cy_b", d1.plusNanos(1));
+
+    private static final String[] AUTHORS = { "alyssa", "ALYSSA", "kevin", "\u212Aevin", "b\u00E9n" };
+    private static final String[] VOCABULARY = { "talk", "Rivest", "@hype", "caf\u00E9", "\u0130t", "it", "a@b", "", "!" };
+
+    @Test
+    public void testEmptyArena() {
+        TweetArena arena = TweetArena.of(Collections.emptyList());
+        assertEquals(0, arena.size());
+        assertEquals(Collections.emptyList(), arena.tweets());
+        assertTrue(ArenaFilter.writtenBy(arena, "alyssa").isEmpty());
+        assertTrue(ArenaExtract.getMentionedUsers(arena).isEmpty());
+        Timespan timespan = ArenaExtract.getTimespan(arena);
+        assertEquals(timespan.getStart(), timespan.getEnd());
+    }
+
+    @Test
+    public void testRoundTrip() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3, new Tweet(4, "alyssa", "", d2));
+        TweetArena arena = TweetArena.of(tweets);
+        assertEquals(tweets, arena.tweets());
+        assertEquals(3, arena.id(2));
+        assertEquals("\u212Aevin", arena.author(2));
+        assertEquals(tweet3.getText(), arena.text(2));
+        assertEquals(d1.plusNanos(1), arena.timestamp(2));
+        for (int i = 0; i < tweets.size(); i++) {
+            assertEquals(tweets.get(i).getAuthor(), arena.tweets().get(i).getAuthor());
+            assertEquals(tweets.get(i).getText(), arena.tweets().get(i).getText());
+        }
+    }
+
+    @Test
+    public void testFilterAndExtract() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+        TweetArena arena = TweetArena.of(tweets);
+
+        assertEquals(Arrays.asList(tweet1), ArenaFilter.writtenBy(arena, "ALYSSA").toList(arena.tweets()));
+        assertEquals(Arrays.asList(tweet3), ArenaFilter.writtenBy(arena, "KEVIN").toList(arena.tweets()));
+        assertEquals(Arrays.asList(tweet1, tweet3), ArenaFilter.inTimespan(arena, new Timespan(d1, d1.plusNanos(1))).toList(arena.tweets()));
+        assertEquals(Arrays.asList(tweet1, tweet2), ArenaFilter.containing(arena, Arrays.asList("TALK")).toList(arena.tweets()));
+        assertEquals(Arrays.asList(tweet3), ArenaFilter.containing(arena, Arrays.asList("i")).toList(arena.tweets()));
+
+        assertEquals(new Timespan(d1, d2), ArenaExtract.getTimespan(arena));
+        assertEquals(Extract.getMentionedUsers(tweets), ArenaExtract.getMentionedUsers(arena));
+    }
+
+    @Test
+    public void testRandomizedAgainstFilterAndExtract() {
+        Random random = new Random(18);
+        for (int trial = 0; trial < 30; trial++) {
+            List<Tweet> tweets = new ArrayList<>();
+            for (int id = 0, size = random.nextInt(100); id < size; id++) {
+                StringBuilder text = new StringBuilder();
+                for (int i = random.nextInt(5); i > 0; i--) {
+                    text.append(VOCABULARY[random.nextInt(VOCABULARY.length)]).append(random.nextBoolean() ? " " : "@");
+                }
+                tweets.add(new Tweet(id, AUTHORS[random.nextInt(AUTHORS.length)], text.toString(),
+                        d1.plusSeconds(random.nextInt(3)).plusNanos(random.nextInt(3))));
+            }
+            TweetArena arena = TweetArena.of(tweets);
+            assertEquals(tweets, arena.tweets());
+
+            for (String author : AUTHORS) {
+                assertEquals(Filter.writtenBy(tweets, author), ArenaFilter.writtenBy(arena, author).toList(tweets));
+            }
+            Instant start = d1.plusSeconds(random.nextInt(3)).plusNanos(random.nextInt(3));
+            Timespan timespan = new Timespan(start, start.plusNanos(random.nextInt(2_000_000_000)));
+            assertEquals(Filter.inTimespan(tweets, timespan), ArenaFilter.inTimespan(arena, timespan).toList(tweets));
+            List<String> words = Arrays.asList(VOCABULARY[random.nextInt(VOCABULARY.length)],
+                    VOCABULARY[random.nextInt(VOCABULARY.length)].toUpperCase());
+            assertEquals(Filter.containing(tweets, words), ArenaFilter.containing(arena, words).toList(tweets));
+
+            assertEquals(Extract.getMentionedUsers(tweets), ArenaExtract.getMentionedUsers(arena));
+            if (!tweets.isEmpty()) {
+                assertEquals(Extract.getTimespan(tweets), ArenaExtract.getTimespan(arena));
+            }
+        }
+    }
+
+    @Test
+    public void testNonAsciiWrittenByDecodesEachAuthorOnce() {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int id = 0; id < 100_000; id++) {
+            tweets.add(new Tweet(id, AUTHORS[id % AUTHORS.length], "hi", d1));
+        }
+        TweetArena arena = TweetArena.of(tweets);
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)
+                || !((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemoryEnabled()) {
+            return; // allocation is not measurable on this JVM
+        }
+        com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+        long before = allocation.getCurrentThreadAllocatedBytes();
+        TweetBitmap written = ArenaFilter.writtenBy(arena, "B\u00C9N");
+        long allocated = allocation.getCurrentThreadAllocatedBytes() - before;
+        assertEquals(tweets.size() / AUTHORS.length, written.cardinality());
+        // a String per tweet would take several MB; the bitmap takes about 16KB
+        assertTrue("expected no per-tweet allocation, got " + allocated, allocated < 1 << 20);
+    }
+}
@@ -0,0 +1,512 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * TweetBitmap is an immutable compressed set of positions in a list of
+ * tweets, for composing Filter-style results without building lists.
+ * 
+ * Like a Roaring bitmap, positions are grouped by their high 16 bits, and
+ * each group is stored either as a sorted array of its low 16 bits, when it
+ * has at most ARRAY_LIMIT positions, or as a 65536-bit bitmap. AND, OR and
+ * ANDNOT work group by group, and the positions, or the tweets at them, are
+ * iterated lazily in ascending order, which is input order.
+ */
+public final class TweetBitmap {
+
+    /** Groups with at most this many positions are stored as sorted arrays. */
+    static final int ARRAY_LIMIT = 4096;
+
+    private static final int GROUP_BITS = 1 << 16;
+    private static final int GROUP_WORDS = GROUP_BITS / 64;
+
+    private static final TweetBitmap EMPTY = new TweetBitmap(new int[0], new Container[0]);
+
+    // keys[i] is the high 16 bits shared by every position in containers[i]; ascending
+    private final int[] keys;
+    private final Container[] containers;
+    private final int cardinality;
+
+    private TweetBitmap(int[] keys, Container[] containers) {
+        this.keys = keys;
+        this.containers = containers;
+        int total = 0;
+        for (Container container : containers) {
+            total += container.cardinality;
+        }
+        this.cardinality = total;
+    }
+
+    /*
+     * The low 16 bits of one group's positions: exactly one of array (sorted,
+     * length cardinality) or bits (GROUP_WORDS words) is non-null, and
+     * cardinality > 0.
+     */
+    private static final class Container {
+        final char[] array;
+        final long[] bits;
+        final int cardinality;
+
+        Container(char[] array, long[] bits, int cardinality) {
+            this.array = array;
+            this.bits = bits;
+            this.cardinality = cardinality;
+        }
+
+        boolean contains(char low) {
+            return array != null ? Arrays.binarySearch(array, low) >= 0 : (bits[low >>> 6] & (1L << low)) != 0;
+        }
+
+        long[] toBits() {
+            if (bits != null) {
+                return bits.clone();
+            }
+            long[] words = new long[GROUP_WORDS];
+            for (char low : array) {
+                words[low >>> 6] |= 1L << low;
+            }
+            return words;
+        }
+
+        // container of the set bits of words, or null if there are none
+        static Container of(long[] words) {
+            int count = 0;
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+            if (count == 0) {
+                return null;
+            } else if (count > ARRAY_LIMIT) {
+                return new Container(null, words, count);
+            }
+            char[] array = new char[count];
+            int filled = 0;
+            for (int w = 0; w < words.length; w++) {
+                for (long word = words[w]; word != 0; word &= word - 1) {
+                    array[filled++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                }
+            }
+            return new Container(array, null, count);
+        }
+
+        // container of the first count entries of array, or null if count is 0
+        static Container of(char[] array, int count) {
+            return count == 0 ? null : new Container(count == array.length ? array : Arrays.copyOf(array, count), null, count);
+        }
+    }
+
+    /**
+     * @return the empty bitmap
+     */
+    public static TweetBitmap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param positions
+     *            strictly ascending nonnegative positions, not modified
+     * @return the bitmap of those positions
+     */
+    public static TweetBitmap of(int... positions) {
+        List<Integer> keys = new ArrayList<>();
+        List<Container> containers = new ArrayList<>();
+        int i = 0;
+        while (i < positions.length) {
+            int key = positions[i] >>> 16;
+            int end = i;
+            while (end < positions.length && positions[end] >>> 16 == key) {
+                if (positions[end] < 0 || (end > 0 && positions[end] <= positions[end - 1])) {
+                    throw new IllegalArgumentException("positions must be ascending and nonnegative");
+                }
+                end++;
+            }
+            char[] array = new char[end - i];
+            for (int j = i; j < end; j++) {
+                array[j - i] = (char) positions[j];
+            }
+            keys.add(key);
+            containers.add(array.length > ARRAY_LIMIT ? Container.of(new Container(array, null, array.length).toBits())
+                                                      : new Container(array, null, array.length));
+            i = end;
+        }
+        return build(keys, containers);
+    }
+
+    /**
+     * @param tweets
+     *            list of tweets, not modified
+     * @param predicate
+     *            test to apply to each tweet
+     * @return the bitmap of positions of the tweets that satisfy predicate
+     */
+    static TweetBitmap matching(List<Tweet> tweets, Predicate<Tweet> predicate) {
+        List<Integer> keys = new ArrayList<>();
+        List<Container> containers = new ArrayList<>();
+        long[] words = new long[GROUP_WORDS];
+        int position = 0;
+        boolean any = false;
+        for (Tweet tweet : tweets) {
+            if (predicate.test(tweet)) {
+                words[(position & 0xFFFF) >>> 6] |= 1L << position;
+                any = true;
+            }
+            position++;
+            if ((position & 0xFFFF) == 0 && any) {
+                keys.add((position - 1) >>> 16);
+                containers.add(Container.of(words));
+                words = new long[GROUP_WORDS];
+                any = false;
+            }
+        }
+        if (any) {
+            keys.add((position - 1) >>> 16);
+            containers.add(Container.of(words));
+        }
+        return build(keys, containers);
+    }
+
+    /**
+     * @param size
+     *            number of positions to test
+     * @param predicate
+     *            test to apply to each position in [0, size)
+     * @return the bitmap of positions that satisfy predicate
+     */
+    static TweetBitmap matching(int size, IntPredicate predicate) {
+        List<Integer> keys = new ArrayList<>();
+        List<Container> containers = new ArrayList<>();
+        for (int base = 0; base < size; base += GROUP_BITS) {
+            long[] words = null;
+            int limit = Math.min(size - base, GROUP_BITS);
+            for (int offset = 0; offset < limit; offset++) {
+                if (predicate.test(base + offset)) {
+                    if (words == null) {
+                        words = new long[GROUP_WORDS];
+                    }
+                    words[offset >>> 6] |= 1L << offset;
+                }
+            }
+            if (words != null) {
+                keys.add(base >>> 16);
+                containers.add(Container.of(words));
+            }
+        }
+        return build(keys, containers);
+    }
+
+    private static TweetBitmap build(List<Integer> keys, List<Container> containers) {
+        int[] keyArray = new int[keys.size()];
+        for (int i = 0; i < keyArray.length; i++) {
+            keyArray[i] = keys.get(i);
+        }
+        return new TweetBitmap(keyArray, containers.toArray(new Container[0]));
+    }
+
+    /**
+     * @return number of positions in this bitmap
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * @return true iff this bitmap has no positions
+     */
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * @param position
+     *            a position
+     * @return true iff position is in this bitmap
+     */
+    public boolean contains(int position) {
+        int i = Arrays.binarySearch(keys, position >>> 16);
+        return position >= 0 && i >= 0 && containers[i].contains((char) position);
+    }
+
+    /**
+     * @param that
+     *            another bitmap
+     * @return the positions in both bitmaps
+     */
+    public TweetBitmap and(TweetBitmap that) {
+        List<Integer> keys = new ArrayList<>();
+        List<Container> containers = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < this.keys.length && j < that.keys.length) {
+            if (this.keys[i] < that.keys[j]) {
+                i++;
+            } else if (this.keys[i] > that.keys[j]) {
+                j++;
+            } else {
+                add(keys, containers, this.keys[i], and(this.containers[i], that.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return build(keys, containers);
+    }
+
+    /**
+     * @param that
+     *            another bitmap
+     * @return the positions in either bitmap
+     */
+    public TweetBitmap or(TweetBitmap that) {
+        List<Integer> keys = new ArrayList<>();
+        List<Container> containers = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < this.keys.length || j < that.keys.length) {
+            if (j == that.keys.length || (i < this.keys.length && this.keys[i] < that.keys[j])) {
+                add(keys, containers, this.keys[i], this.containers[i]);
+                i++;
+            } else if (i == this.keys.length || this.keys[i] > that.keys[j]) {
+                add(keys, containers, that.keys[j], that.containers[j]);
+                j++;
+            } else {
+                add(keys, containers, this.keys[i], or(this.containers[i], that.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return build(keys, containers);
+    }
+
+    /**
+     * @param that
+     *            another bitmap
+     * @return the positions in this bitmap but not in that one
+     */
+    public TweetBitmap andNot(TweetBitmap that) {
+        List<Integer> keys = new ArrayList<>();
+        List<Container> containers = new ArrayList<>();
+        int j = 0;
+        for (int i = 0; i < this.keys.length; i++) {
+            while (j < that.keys.length && that.keys[j] < this.keys[i]) {
+                j++;
+            }
+            if (j < that.keys.length && that.keys[j] == this.keys[i]) {
+                add(keys, containers, this.keys[i], andNot(this.containers[i], that.containers[j]));
+            } else {
+                add(keys, containers, this.keys[i], this.containers[i]);
+            }
+        }
+        return build(keys, containers);
+    }
+
+    private static void add(List<Integer> keys, List<Container> containers, int key, Container container) {
+        if (container != null) {
+            keys.add(key);
+            containers.add(container);
+        }
+    }
+
+    private static Container and(Container a, Container b) {
+        if (a.array != null || b.array != null) {
+            // keep the array entries found in the other container
+            Container small = a.array != null && (b.array == null || a.cardinality <= b.cardinality) ? a : b;
+            Container other = small == a ? b : a;
+            char[] result = new char[small.cardinality];
+            int count = 0;
+            for (char low : small.array) {
+                if (other.contains(low)) {
+                    result[count++] = low;
+                }
+            }
+            return Container.of(result, count);
+        }
+        long[] words = new long[GROUP_WORDS];
+        for (int w = 0; w < GROUP_WORDS; w++) {
+            words[w] = a.bits[w] & b.bits[w];
+        }
+        return Container.of(words);
+    }
+
+    private static Container or(Container a, Container b) {
+        if (a.array != null && b.array != null && a.cardinality + b.cardinality <= ARRAY_LIMIT) {
+            char[] result = new char[a.cardinality + b.cardinality];
+            int i = 0;
+            int j = 0;
+            int count = 0;
+            while (i < a.cardinality || j < b.cardinality) {
+                if (j == b.cardinality || (i < a.cardinality && a.array[i] < b.array[j])) {
+                    result[count++] = a.array[i++];
+                } else if (i == a.cardinality || a.array[i] > b.array[j]) {
+                    result[count++] = b.array[j++];
+                } else {
+                    result[count++] = a.array[i++];
+                    j++;
+                }
+            }
+            return Container.of(result, count);
+        }
+        long[] words = a.toBits();
+        if (b.array != null) {
+            for (char low : b.array) {
+                words[low >>> 6] |= 1L << low;
+            }
+        } else {
+            for (int w = 0; w < GROUP_WORDS; w++) {
+                words[w] |= b.bits[w];
+            }
+        }
+        return Container.of(words);
+    }
+
+    private static Container andNot(Container a, Container b) {
+        if (a.array != null) {
+            char[] result = new char[a.cardinality];
+            int count = 0;
+            for (char low : a.array) {
+                if (!b.contains(low)) {
+                    result[count++] = low;
+                }
+            }
+            return Container.of(result, count);
+        }
+        long[] words = a.bits.clone();
+        if (b.array != null) {
+            for (char low : b.array) {
+                words[low >>> 6] &= ~(1L << low);
+            }
+        } else {
+            for (int w = 0; w < GROUP_WORDS; w++) {
+                words[w] &= ~b.bits[w];
+            }
+        }
+        return Container.of(words);
+    }
+
+    /**
+     * @return iterator over the positions of this bitmap, in ascending order
+     */
+    public PrimitiveIterator.OfInt positions() {
+        return new PrimitiveIterator.OfInt() {
+            private int container = 0;
+            private int index = 0; // array index, or bit index in a bitmap container
+
+            {
+                advance();
+            }
+
+            // move index to the next present entry, moving to later containers as needed
+            private void advance() {
+                while (container < containers.length) {
+                    Container c = containers[container];
+                    if (c.array != null) {
+                        if (index < c.cardinality) {
+                            return;
+                        }
+                    } else {
+                        while (index < GROUP_BITS) {
+                            long word = c.bits[index >>> 6] >>> index;
+                            if (word != 0) {
+                                index += Long.numberOfTrailingZeros(word);
+                                return;
+                            }
+                            index = (index | 63) + 1;
+                        }
+                    }
+                    container++;
+                    index = 0;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return container < containers.length;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Container c = containers[container];
+                int low = c.array != null ? c.array[index] : index;
+                int position = (keys[container] << 16) | low;
+                index++;
+                advance();
+                return position;
+            }
+        };
+    }
+
+    /**
+     * @return the positions of this bitmap, in ascending order
+     */
+    public int[] toArray() {
+        int[] positions = new int[cardinality];
+        PrimitiveIterator.OfInt iterator = positions();
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = iterator.nextInt();
+        }
+        return positions;
+    }
+
+    /**
+     * @param source
+     *            the list this bitmap holds positions of; every position must
+     *            be less than its size
+     * @return a lazy view of the tweets of source at this bitmap's positions,
+     *         in input order
+     */
+    public Iterable<Tweet> tweets(List<Tweet> source) {
+        return () -> new Iterator<Tweet>() {
+            private final PrimitiveIterator.OfInt positions = positions();
+
+            @Override
+            public boolean hasNext() {
+                return positions.hasNext();
+            }
+
+            @Override
+            public Tweet next() {
+                return source.get(positions.nextInt());
+            }
+        };
+    }
+
+    /**
+     * @param source
+     *            the list this bitmap holds positions of
+     * @return a new list of the tweets of source at this bitmap's positions,
+     *         in input order
+     */
+    public List<Tweet> toList(List<Tweet> source) {
+        List<Tweet> result = new ArrayList<>(cardinality);
+        for (Tweet tweet : tweets(source)) {
+            result.add(tweet);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object that) {
+        return that instanceof TweetBitmap && Arrays.equals(toArray(), ((TweetBitmap) that).toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
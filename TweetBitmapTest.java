@@ -0,0 +1,124 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TweetBitmapTest {
+
+    /*
+     * Testing strategy for TweetBitmap and BitmapFilter:
+     * 
+     * Partition as follows:
+     * - bitmap: empty, sparse (array groups), dense (bitmap groups), spanning
+     *   several 65536-position groups, mixed group kinds
+     * - operation: and, or, andNot, cardinality, contains, iteration
+     * - results that change group kind (dense OR dense, dense AND sparse)
+     * - of: positions not ascending within a group, descending across groups
+     * Operations are compared against java.util.BitSet, and BitmapFilter
+     * results against Filter.
+     */
+
+    private static final Instant START = Instant.parse("2016-02-17T00:00:00Z");
+
+    private static BitSet randomBits(Random random, int length) {
+        BitSet bits = new BitSet();
+        // each group is independently empty, sparse or dense
+        for (int group = 0; group * 65536 < length; group++) {
+            double density = new double[] { 0, 0.001, 0.03, 0.5, 0.99 }[random.nextInt(5)];
+            for (int i = group * 65536; i < Math.min(length, (group + 1) * 65536); i++) {
+                if (random.nextDouble() < density) {
+                    bits.set(i);
+                }
+            }
+        }
+        return bits;
+    }
+
+    private static TweetBitmap toBitmap(BitSet bits) {
+        return TweetBitmap.of(bits.stream().toArray());
+    }
+
+    private static void assertBits(String message, BitSet expected, TweetBitmap actual) {
+        assertEquals(message + " cardinality", expected.cardinality(), actual.cardinality());
+        assertTrue(message + " positions", Arrays.equals(expected.stream().toArray(), actual.toArray()));
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue("expected empty", TweetBitmap.empty().isEmpty());
+        assertFalse("expected no iteration", TweetBitmap.empty().positions().hasNext());
+        assertEquals("expected empty and", TweetBitmap.empty(), TweetBitmap.of(1, 2, 3).and(TweetBitmap.of(4)));
+    }
+
+    @Test
+    public void testRandomizedAgainstBitSet() {
+        Random random = new Random(6005);
+        for (int round = 0; round < 30; round++) {
+            int length = 1 + random.nextInt(4 * 65536);
+            BitSet a = randomBits(random, length);
+            BitSet b = randomBits(random, length);
+            TweetBitmap x = toBitmap(a);
+            TweetBitmap y = toBitmap(b);
+            assertBits("expected round trip", a, x);
+
+            BitSet and = (BitSet) a.clone();
+            and.and(b);
+            assertBits("expected and", and, x.and(y));
+            BitSet or = (BitSet) a.clone();
+            or.or(b);
+            assertBits("expected or", or, x.or(y));
+            BitSet andNot = (BitSet) a.clone();
+            andNot.andNot(b);
+            assertBits("expected andNot", andNot, x.andNot(y));
+
+            for (int probe = 0; probe < 100; probe++) {
+                int position = random.nextInt(length);
+                assertEquals("expected contains", a.get(position), x.contains(position));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfRejectsUnsorted() {
+        TweetBitmap.of(3, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfRejectsDescentAcrossGroups() {
+        TweetBitmap.of(70_000, 5);
+    }
+
+    @Test
+    public void testBitmapFilterMatchesFilter() {
+        List<Tweet> tweets = new TweetGenerator(6005, 100, 20, 0.1).tweets(70_000, START, Duration.ofDays(1));
+        Timespan timespan = new Timespan(START.plus(Duration.ofHours(2)), START.plus(Duration.ofHours(20)));
+        List<String> words = Arrays.asList("w1", "w2");
+
+        TweetBitmap byUser = BitmapFilter.writtenBy(tweets, "USER3");
+        TweetBitmap inSpan = BitmapFilter.inTimespan(tweets, timespan);
+        TweetBitmap withWords = BitmapFilter.containing(tweets, words);
+        assertEquals("expected writtenBy", Filter.writtenBy(tweets, "USER3"), byUser.toList(tweets));
+        assertEquals("expected inTimespan", Filter.inTimespan(tweets, timespan), inSpan.toList(tweets));
+        assertEquals("expected containing", Filter.containing(tweets, words), withWords.toList(tweets));
+
+        List<Tweet> composed = new ArrayList<>();
+        for (Tweet tweet : byUser.and(inSpan).andNot(withWords).tweets(tweets)) {
+            composed.add(tweet);
+        }
+        List<Tweet> chained = new ArrayList<>(Filter.inTimespan(Filter.writtenBy(tweets, "USER3"), timespan));
+        chained.removeAll(Filter.containing(tweets, words));
+        assertEquals("expected composed result", chained, composed);
+    }
+}
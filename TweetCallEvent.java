@@ -0,0 +1,93 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * TweetCallEvent is a Java Flight Recorder event for one Filter or Extract
+ * call. It is disabled by default and costs nothing unless a recording
+ * enables "twitter.TweetCall".
+ * 
+ * Instrumentation.setMetrics(TweetCallEvent.metrics()) commits one event per
+ * instrumented call. The event begins and ends with the call, so its JFR
+ * duration covers the call, as does the nanos field.
+ */
+@Name("twitter.TweetCall")
+@Label("Tweet Call")
+@Category({ "Twitter", "Filter and Extract" })
+@Description("One call of a Filter or Extract method")
+@StackTrace(false)
+public class TweetCallEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Input Size")
+    int inputSize;
+
+    @Label("Output Size")
+    int outputSize;
+
+    @Label("Duration")
+    @jdk.jfr.Timespan(jdk.jfr.Timespan.NANOSECONDS)
+    long nanos;
+
+    @Label("Allocated")
+    @DataAmount(DataAmount.BYTES)
+    long allocatedBytes;
+
+    private static final TweetMetrics METRICS = new TweetMetrics() {
+        @Override
+        public Object begin(String method, int inputSize) {
+            TweetCallEvent event = new TweetCallEvent();
+            if (!event.isEnabled()) {
+                return null;
+            }
+            event.begin();
+            return event;
+        }
+
+        @Override
+        public void end(Object state, String method, int inputSize, int outputSize, long nanos, long allocatedBytes) {
+            if (state != null) {
+                TweetCallEvent event = (TweetCallEvent) state;
+                event.end();
+                commit(event, method, inputSize, outputSize, nanos, allocatedBytes);
+            }
+        }
+
+        // a call reported without begin: the event has no JFR duration, only nanos
+        @Override
+        public void record(String method, int inputSize, int outputSize, long nanos, long allocatedBytes) {
+            TweetCallEvent event = new TweetCallEvent();
+            if (event.isEnabled()) {
+                commit(event, method, inputSize, outputSize, nanos, allocatedBytes);
+            }
+        }
+    };
+
+    private static void commit(TweetCallEvent event, String method, int inputSize, int outputSize, long nanos,
+            long allocatedBytes) {
+        event.method = method;
+        event.inputSize = inputSize;
+        event.outputSize = outputSize;
+        event.nanos = nanos;
+        event.allocatedBytes = allocatedBytes;
+        event.commit();
+    }
+
+    /**
+     * @return metrics that commit a TweetCallEvent per recorded call
+     */
+    public static TweetMetrics metrics() {
+        return METRICS;
+    }
+}
@@ -0,0 +1,131 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * TweetGenerator makes reproducible synthetic tweets for benchmarks.
+ * 
+ * Tweet text is 8 to 16 tokens separated by spaces or punctuation. Each token
+ * is a mention of one of the authors with probability mentionDensity, and
+ * otherwise a word drawn uniformly from a vocabulary of vocabularySize words,
+ * capitalized one time in ten. Timestamps are uniform over the generated span.
+ */
+final class TweetGenerator {
+
+    private static final String[] SEPARATORS = { " ", " ", " ", ", ", ". ", "! ", " #", " - " };
+
+    private final Random random;
+    private final int vocabularySize;
+    private final int authorCount;
+    private final double mentionDensity;
+
+    /**
+     * Make a generator.
+     * 
+     * @param seed
+     *            random seed; equal seeds and parameters give equal tweets
+     * @param vocabularySize
+     *            number of distinct words, >= 1
+     * @param authorCount
+     *            number of distinct authors, >= 1
+     * @param mentionDensity
+     *            probability that a token is a mention, in [0, 1]
+     */
+    TweetGenerator(long seed, int vocabularySize, int authorCount, double mentionDensity) {
+        this.random = new Random(seed);
+        this.vocabularySize = vocabularySize;
+        this.authorCount = authorCount;
+        this.mentionDensity = mentionDensity;
+    }
+
+    /**
+     * @param index
+     *            word number, in [0, vocabularySize)
+     * @return the vocabulary word with that number
+     */
+    static String word(int index) {
+        return "w" + Integer.toString(index, 36);
+    }
+
+    /**
+     * @param index
+     *            author number, in [0, authorCount)
+     * @return the author with that number
+     */
+    static String author(int index) {
+        return "user" + index;
+    }
+
+    /**
+     * @param count
+     *            number of tweets
+     * @param start
+     *            earliest possible timestamp
+     * @param span
+     *            length of the period the timestamps fall in
+     * @return count tweets with ids 0 to count - 1
+     */
+    List<Tweet> tweets(int count, Instant start, Duration span) {
+        List<Tweet> tweets = new ArrayList<>(count);
+        long spanMillis = Math.max(1, span.toMillis());
+        for (int id = 0; id < count; id++) {
+            Instant timestamp = start.plusMillis((long) (random.nextDouble() * spanMillis));
+            tweets.add(new Tweet(id, author(random.nextInt(authorCount)), text(), timestamp));
+        }
+        return tweets;
+    }
+
+    private String text() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 8 + random.nextInt(9); i > 0; i--) {
+            if (text.length() > 0) {
+                text.append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+            }
+            if (random.nextDouble() < mentionDensity) {
+                text.append('@').append(author(random.nextInt(authorCount)));
+            } else {
+                String word = word(random.nextInt(vocabularySize));
+                text.append(random.nextInt(10) == 0 ? word.toUpperCase() : word);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * @param count
+     *            number of words
+     * @return count words, half drawn from the vocabulary and half that occur
+     *         in no generated tweet
+     */
+    List<String> words(int count) {
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            words.add(i % 2 == 0 ? word(random.nextInt(vocabularySize)) : "absent" + i);
+        }
+        return words;
+    }
+
+    /**
+     * @param start
+     *            start of the generated span
+     * @param span
+     *            length of the generated span
+     * @param selectivity
+     *            fraction of the span to cover, in [0, 1]
+     * @return a timespan covering about that fraction of uniformly generated
+     *         tweets, placed at random within the span
+     */
+    Timespan timespan(Instant start, Duration span, double selectivity) {
+        long spanMillis = span.toMillis();
+        long window = (long) (spanMillis * selectivity);
+        Instant from = start.plusMillis((long) (random.nextDouble() * (spanMillis - window)));
+        return new Timespan(from, from.plusMillis(window));
+    }
+}
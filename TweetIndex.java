@@ -0,0 +1,149 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * TweetIndex is an inverted word index over a fixed list of tweets.
+ * 
+ * It is built once and then answers Filter.containing queries in time
+ * proportional to the number of matching postings rather than the size of the
+ * list. Words are compared exactly as Filter.containing compares them.
+ * 
+ * Immutable, so safe for use by multiple threads once constructed.
+ */
+public class TweetIndex {
+
+    private static final int[] NO_POSTINGS = new int[0];
+
+    private final List<Tweet> tweets;
+    // lowercased word -> ascending positions in tweets of the tweets containing it
+    private final Map<String, int[]> postings;
+
+    /**
+     * Make an index of a list of tweets.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this
+     *            constructor. The index keeps a copy, so later changes to the
+     *            list are not reflected.
+     */
+    public TweetIndex(List<Tweet> tweets) {
+        this.tweets = Collections.unmodifiableList(new ArrayList<>(tweets));
+
+        Map<String, int[]> building = new HashMap<>();
+        // postings under construction keep their length in slot 0
+        for (int position = 0; position < this.tweets.size(); position++) {
+            for (String word : Tokenizer.words(this.tweets.get(position).getText())) {
+                int[] list = building.get(word);
+                if (list == null) {
+                    list = new int[] { 0, 0, 0, 0 };
+                    building.put(word, list);
+                }
+                int length = list[0];
+                if (length > 0 && list[length] == position) {
+                    continue; // word repeated within one tweet
+                }
+                if (length + 1 == list.length) {
+                    list = Arrays.copyOf(list, list.length * 2);
+                    building.put(word, list);
+                }
+                list[length + 1] = position;
+                list[0] = length + 1;
+            }
+        }
+
+        Map<String, int[]> trimmed = new HashMap<>(building.size() * 2);
+        for (Map.Entry<String, int[]> entry : building.entrySet()) {
+            int[] list = entry.getValue();
+            trimmed.put(entry.getKey(), Arrays.copyOfRange(list, 1, list[0] + 1));
+        }
+        this.postings = trimmed;
+    }
+
+    /**
+     * @return the indexed tweets, in their original order; unmodifiable
+     */
+    public List<Tweet> tweets() {
+        return tweets;
+    }
+
+    /**
+     * Find tweets that contain certain words.
+     * 
+     * @param words
+     *            a list of words to search for, as for Filter.containing
+     * @return the same list Filter.containing(tweets(), words) returns: all and
+     *         only the indexed tweets that include at least one of the words,
+     *         compared case-insensitively, in their original order.
+     */
+    public List<Tweet> containing(List<String> words) {
+        int[] positions = positionsContaining(words);
+        List<Tweet> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(tweets.get(position));
+        }
+        return result;
+    }
+
+    /**
+     * @param words
+     *            a list of words to search for, as for Filter.containing
+     * @return ascending positions in tweets() of the tweets containing at
+     *         least one of the words; a fresh array the caller may modify
+     */
+    int[] positionsContaining(List<String> words) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String word : words) {
+            distinct.add(Tokenizer.normalize(word));
+        }
+
+        List<int[]> matching = new ArrayList<>(distinct.size());
+        int total = 0;
+        for (String word : distinct) {
+            int[] list = postings.getOrDefault(word, NO_POSTINGS);
+            if (list.length > 0) {
+                matching.add(list);
+                total += list.length;
+            }
+        }
+        if (matching.size() == 1) {
+            return matching.get(0).clone();
+        }
+
+        // union: concatenate, sort, and drop duplicates
+        int[] union = new int[total];
+        int filled = 0;
+        for (int[] list : matching) {
+            System.arraycopy(list, 0, union, filled, list.length);
+            filled += list.length;
+        }
+        Arrays.sort(union);
+        int distinctCount = 0;
+        for (int i = 0; i < union.length; i++) {
+            if (distinctCount == 0 || union[distinctCount - 1] != union[i]) {
+                union[distinctCount++] = union[i];
+            }
+        }
+        return distinctCount == union.length ? union : Arrays.copyOf(union, distinctCount);
+    }
+
+    /**
+     * @param word
+     *            a query word
+     * @return number of indexed tweets containing word, compared as by
+     *         Filter.containing
+     */
+    public int count(String word) {
+        return postings.getOrDefault(Tokenizer.normalize(word), NO_POSTINGS).length;
+    }
+}
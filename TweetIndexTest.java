@@ -0,0 +1,101 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TweetIndexTest {
+
+    /*
+     * Testing strategy for TweetIndex.containing:
+     * 
+     * Partition as follows:
+     * - corpus: empty, nonempty
+     * - words: empty list, no matches, one word, several words with overlapping matches
+     * - word case differs from tweet case
+     * - word repeated within one tweet, word list with duplicates
+     * - tweet text starting with a non-word character (empty leading word)
+     * - default locale: root, Turkish (dotted and dotless i)
+     * Differential: randomized corpora and word lists compared against Filter.containing.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d1);
+    private static final Tweet tweet3 = new Tweet(3, "alyssa", "#talk talk TALK", d1);
+
+    private static final String[] VOCABULARY = { "talk", "Rivest", "hype", "so", "much", "a", "b", "" };
+    private static final String[] SEPARATORS = { " ", "  ", "#", "?", ", ", "@", "-" };
+
+    @Test
+    public void testEmptyCorpus() {
+        TweetIndex index = new TweetIndex(Collections.emptyList());
+        assertTrue("expected empty list", index.containing(Arrays.asList("talk")).isEmpty());
+    }
+
+    @Test
+    public void testOverlappingWordsInInputOrder() {
+        List<Tweet> tweets = Arrays.asList(tweet3, tweet1, tweet2);
+        TweetIndex index = new TweetIndex(tweets);
+        assertEquals("expected input order", tweets, index.containing(Arrays.asList("RIVEST", "talk", "talk")));
+        assertEquals("expected one posting per tweet", 3, index.count("Talk"));
+        assertTrue("expected no match", index.containing(Arrays.asList("nonexistent")).isEmpty());
+        assertTrue("expected no match for empty list", index.containing(Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    public void testRandomizedAgainstFilter() {
+        Random random = new Random(6005);
+        for (int round = 0; round < 200; round++) {
+            List<Tweet> tweets = new ArrayList<>();
+            int size = random.nextInt(30);
+            for (int id = 0; id < size; id++) {
+                StringBuilder text = new StringBuilder();
+                for (int w = random.nextInt(6); w >= 0; w--) {
+                    text.append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+                    text.append(VOCABULARY[random.nextInt(VOCABULARY.length)]);
+                }
+                tweets.add(new Tweet(id, "alyssa", text.toString(), d1));
+            }
+            TweetIndex index = new TweetIndex(tweets);
+            for (int query = 0; query < 10; query++) {
+                List<String> words = new ArrayList<>();
+                for (int w = random.nextInt(4); w > 0; w--) {
+                    words.add(VOCABULARY[random.nextInt(VOCABULARY.length)].toUpperCase());
+                }
+                assertEquals("expected Filter.containing result for " + words + " in " + tweets,
+                        Filter.containing(tweets, words), index.containing(words));
+            }
+        }
+    }
+
+    @Test
+    public void testTurkishLocale() {
+        Locale saved = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            Tweet ascii = new Tweet(1, "alyssa", "TITLE fight", d1);
+            Tweet accented = new Tweet(2, "alyssa", "\u00e9 TITLE", d1);
+            List<Tweet> tweets = Arrays.asList(ascii, accented);
+            TweetIndex index = new TweetIndex(tweets);
+            for (String word : Arrays.asList("title", "TITLE")) {
+                assertEquals("expected both tweets for " + word, tweets, Filter.containing(tweets, Arrays.asList(word)));
+                assertEquals("expected both tweets for " + word, tweets, index.containing(Arrays.asList(word)));
+            }
+        } finally {
+            Locale.setDefault(saved);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+/**
+ * TweetMetrics receives one measurement per instrumented Filter or Extract
+ * call, while instrumentation is enabled with Instrumentation.setMetrics.
+ * 
+ * Implementations must be safe for use by multiple threads, and should be
+ * cheap, since they run on the caller's thread.
+ */
+public interface TweetMetrics {
+
+    /**
+     * Called as an instrumented call starts, before its time and allocation
+     * are measured.
+     * 
+     * @param method
+     *            name of the method, e.g. "Filter.containing"
+     * @param inputSize
+     *            number of input tweets
+     * @return state to pass to end for this call, or null. The default
+     *         returns null.
+     */
+    default Object begin(String method, int inputSize) {
+        return null;
+    }
+
+    /**
+     * Called as an instrumented call finishes, after its time and allocation
+     * are measured. The default calls record.
+     * 
+     * @param state
+     *            the result of begin for this call
+     * @param method
+     *            as for record
+     * @param inputSize
+     *            as for record
+     * @param outputSize
+     *            as for record
+     * @param nanos
+     *            as for record
+     * @param allocatedBytes
+     *            as for record
+     */
+    default void end(Object state, String method, int inputSize, int outputSize, long nanos, long allocatedBytes) {
+        record(method, inputSize, outputSize, nanos, allocatedBytes);
+    }
+
+    /**
+     * Record one finished call.
+     * 
+     * @param method
+     *            name of the method, e.g. "Filter.containing"
+     * @param inputSize
+     *            number of input tweets
+     * @param outputSize
+     *            number of tweets or usernames returned; 1 for a timespan;
+     *            -1 if the call threw an exception
+     * @param nanos
+     *            elapsed wall-clock time in nanoseconds
+     * @param allocatedBytes
+     *            bytes allocated by the calling thread during the call, or -1
+     *            if the JVM cannot measure it
+     */
+    void record(String method, int inputSize, int outputSize, long nanos, long allocatedBytes);
+}
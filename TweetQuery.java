@@ -0,0 +1,123 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * TweetQuery is an immutable conjunction of the Filter predicates.
+ * 
+ * A tweet satisfies the query iff it satisfies every predicate the query
+ * includes, so running the query gives the same result as chaining the
+ * corresponding Filter.writtenBy, Filter.inTimespan and Filter.containing
+ * calls. The query with no predicates matches every tweet.
+ */
+public class TweetQuery {
+
+    private static final TweetQuery ALL = new TweetQuery(null, null, null);
+
+    private final String author;
+    private final Timespan timespan;
+    private final List<String> words;
+
+    private TweetQuery(String author, Timespan timespan, List<String> words) {
+        this.author = author;
+        this.timespan = timespan;
+        this.words = words;
+    }
+
+    /**
+     * @return the query that matches every tweet
+     */
+    public static TweetQuery all() {
+        return ALL;
+    }
+
+    /**
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @return a query that also requires the tweet's author to be username, as
+     *         by Filter.writtenBy; replaces any author this query requires
+     */
+    public TweetQuery writtenBy(String username) {
+        return new TweetQuery(Objects.requireNonNull(username), timespan, words);
+    }
+
+    /**
+     * @param timespan
+     *            timespan
+     * @return a query that also requires the tweet to be sent during timespan,
+     *         as by Filter.inTimespan; replaces any timespan this query requires
+     */
+    public TweetQuery inTimespan(Timespan timespan) {
+        return new TweetQuery(author, Objects.requireNonNull(timespan), words);
+    }
+
+    /**
+     * @param words
+     *            a list of words, as for Filter.containing; not modified
+     * @return a query that also requires the tweet to contain at least one of
+     *         words, as by Filter.containing; replaces any words this query
+     *         requires
+     */
+    public TweetQuery containing(List<String> words) {
+        return new TweetQuery(author, timespan, Collections.unmodifiableList(new ArrayList<>(words)));
+    }
+
+    /**
+     * @return the username this query requires, if any
+     */
+    public Optional<String> author() {
+        return Optional.ofNullable(author);
+    }
+
+    /**
+     * @return the timespan this query requires, if any
+     */
+    public Optional<Timespan> timespan() {
+        return Optional.ofNullable(timespan);
+    }
+
+    /**
+     * @return the words this query requires one of, if any; unmodifiable
+     */
+    public Optional<List<String>> words() {
+        return Optional.ofNullable(words);
+    }
+
+    @Override
+    public boolean equals(Object that) {
+        if (!(that instanceof TweetQuery)) {
+            return false;
+        }
+        TweetQuery other = (TweetQuery) that;
+        return Objects.equals(author, other.author) && Objects.equals(timespan, other.timespan)
+                && Objects.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(author, timespan, words);
+    }
+
+    @Override
+    public String toString() {
+        List<String> parts = new ArrayList<>();
+        if (author != null) {
+            parts.add("writtenBy(" + author + ")");
+        }
+        if (timespan != null) {
+            parts.add("inTimespan(" + timespan + ")");
+        }
+        if (words != null) {
+            parts.add("containing(" + words + ")");
+        }
+        return parts.isEmpty() ? "all()" : String.join(" && ", parts);
+    }
+}
@@ -0,0 +1,351 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * TweetStore is a read-only, memory-mapped, columnar file of tweets.
+ * 
+ * The file keeps each tweet field in its own column: ids, epoch seconds and
+ * nanosecond adjustments of timestamps, author numbers into a dictionary of
+ * distinct authors, and offsets into one region of UTF-8 text. Opening a
+ * store maps the file and decodes only the author dictionary; tweets() is a
+ * list view that builds each Tweet on demand, so Filter and Extract can run
+ * over a store without first loading every tweet onto the heap.
+ * 
+ * File layout, all numbers big-endian:
+ *   int magic, int version, int tweetCount, int authorCount,
+ *   long authorBytes, long textBytes,
+ *   long id[tweetCount], long epochSecond[tweetCount], int nano[tweetCount],
+ *   int author[tweetCount], int authorOffset[authorCount + 1],
+ *   long textOffset[tweetCount + 1],
+ *   byte authorUtf8[authorBytes], byte textUtf8[textBytes]
+ * 
+ * Every column and the text region are mapped in chunks of 1GB, since one
+ * mapping is limited to 2GB, so a store is limited only by its int tweet
+ * count (2^31 - 1 tweets) and an author dictionary of at most 2GB.
+ * 
+ * Immutable, so safe for use by multiple threads.
+ */
+public class TweetStore {
+
+    private static final int MAGIC = 0x54575453; // "TWTS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    // every column is mapped in chunks, since one mapping is limited to 2GB
+    private static final long CHUNK_BYTES = 1L << 30;
+
+    private final int size;
+    private final Column ids;
+    private final Column seconds;
+    private final Column nanos;
+    private final Column authorNumbers;
+    private final String[] authors;
+    private final Column textOffsets;
+    private final ByteBuffer[] textChunks;
+    private final long chunkBytes;
+    private final List<Tweet> view = new TweetList();
+
+    /*
+     * A column of fixed-width numbers mapped in chunks of chunkBytes, which
+     * is a multiple of the width, so no number straddles two chunks.
+     */
+    private static final class Column {
+        private final ByteBuffer[] chunks;
+        private final int width;
+        private final long perChunk;
+
+        Column(FileChannel channel, long position, long count, int width, long chunkBytes) throws IOException {
+            this.width = width;
+            this.perChunk = chunkBytes / width;
+            this.chunks = mapChunks(channel, position, count * width, perChunk * width);
+        }
+
+        long getLong(long index) {
+            return chunks[(int) (index / perChunk)].getLong((int) (index % perChunk) * width);
+        }
+
+        int getInt(long index) {
+            return chunks[(int) (index / perChunk)].getInt((int) (index % perChunk) * width);
+        }
+    }
+
+    private TweetStore(FileChannel channel, long chunkBytes) throws IOException {
+        this.chunkBytes = chunkBytes;
+        ByteBuffer header = map(channel, 0, HEADER_BYTES);
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("not a version " + VERSION + " tweet store");
+        }
+        size = header.getInt();
+        int authorCount = header.getInt();
+        long authorBytes = header.getLong();
+        long textBytes = header.getLong();
+        if (size < 0 || authorCount < 0 || authorCount > size || authorBytes < 0
+                || authorBytes > Integer.MAX_VALUE || textBytes < 0) {
+            throw new IOException("corrupt tweet store header: " + size + " tweets, " + authorCount + " authors, "
+                    + authorBytes + " author bytes, " + textBytes + " text bytes");
+        }
+
+        long position = HEADER_BYTES;
+        ids = new Column(channel, position, size, 8, chunkBytes);
+        position += 8L * size;
+        seconds = new Column(channel, position, size, 8, chunkBytes);
+        position += 8L * size;
+        nanos = new Column(channel, position, size, 4, chunkBytes);
+        position += 4L * size;
+        authorNumbers = new Column(channel, position, size, 4, chunkBytes);
+        position += 4L * size;
+        Column authorOffsets = new Column(channel, position, authorCount + 1L, 4, chunkBytes);
+        position += 4L * (authorCount + 1);
+        textOffsets = new Column(channel, position, size + 1L, 8, chunkBytes);
+        position += 8L * (size + 1);
+
+        ByteBuffer authorUtf8 = map(channel, position, authorBytes);
+        authors = new String[authorCount];
+        for (int i = 0; i < authorCount; i++) {
+            int start = authorOffsets.getInt(i);
+            int end = authorOffsets.getInt(i + 1);
+            if (start < 0 || end < start || end > authorBytes) {
+                throw new IOException("corrupt author offsets for author " + i + ": " + start + ", " + end);
+            }
+            byte[] bytes = new byte[end - start];
+            authorUtf8.get(start, bytes);
+            authors[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        position += authorBytes;
+
+        textChunks = mapChunks(channel, position, textBytes, chunkBytes);
+        if (position + textBytes != channel.size()) {
+            throw new IOException("tweet store is " + channel.size() + " bytes, expected " + (position + textBytes));
+        }
+    }
+
+    // map [position, position + length) as consecutive chunks of at most chunkBytes
+    private static ByteBuffer[] mapChunks(FileChannel channel, long position, long length, long chunkBytes) throws IOException {
+        ByteBuffer[] chunks = new ByteBuffer[(int) ((length + chunkBytes - 1) / chunkBytes)];
+        for (int i = 0; i < chunks.length; i++) {
+            long offset = i * chunkBytes;
+            chunks[i] = map(channel, position + offset, Math.min(chunkBytes, length - offset));
+        }
+        return chunks;
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long length) throws IOException {
+        if (position + length > channel.size()) {
+            throw new IOException("tweet store truncated at " + channel.size() + " bytes");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+    }
+
+    /**
+     * Open a tweet store file. The file stays mapped until the store is
+     * garbage-collected, and must not be modified meanwhile.
+     * 
+     * @param file
+     *            a file written by write()
+     * @return the store in file
+     * @throws IOException
+     *             if the file cannot be read or is not a tweet store
+     */
+    public static TweetStore open(Path file) throws IOException {
+        return open(file, CHUNK_BYTES);
+    }
+
+    // open with every column mapped in chunks of chunkBytes, a positive multiple of 8
+    static TweetStore open(Path file, long chunkBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new TweetStore(channel, chunkBytes);
+        }
+    }
+
+    /**
+     * Write a list of tweets as a tweet store file, replacing any existing
+     * file.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method
+     * @param file
+     *            file to write
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public static void write(List<Tweet> tweets, Path file) throws IOException {
+        int size = tweets.size();
+        Map<String, Integer> authorNumbers = new HashMap<>();
+        List<String> authors = new ArrayList<>();
+        long authorBytes = 0;
+        long textBytes = 0;
+        for (Tweet tweet : tweets) {
+            if (authorNumbers.putIfAbsent(tweet.getAuthor(), authors.size()) == null) {
+                authors.add(tweet.getAuthor());
+                authorBytes += utf8Length(tweet.getAuthor());
+            }
+            textBytes += utf8Length(tweet.getText());
+        }
+        if (authorBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("author dictionary too large: " + authorBytes + " bytes");
+        }
+
+        try (OutputStream stream = Files.newOutputStream(file);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size);
+            out.writeInt(authors.size());
+            out.writeLong(authorBytes);
+            out.writeLong(textBytes);
+            for (Tweet tweet : tweets) {
+                out.writeLong(tweet.getId());
+            }
+            for (Tweet tweet : tweets) {
+                out.writeLong(tweet.getTimestamp().getEpochSecond());
+            }
+            for (Tweet tweet : tweets) {
+                out.writeInt(tweet.getTimestamp().getNano());
+            }
+            for (Tweet tweet : tweets) {
+                out.writeInt(authorNumbers.get(tweet.getAuthor()));
+            }
+            int authorOffset = 0;
+            out.writeInt(authorOffset);
+            for (String author : authors) {
+                authorOffset += utf8Length(author);
+                out.writeInt(authorOffset);
+            }
+            long textOffset = 0;
+            out.writeLong(textOffset);
+            for (Tweet tweet : tweets) {
+                textOffset += utf8Length(tweet.getText());
+                out.writeLong(textOffset);
+            }
+            for (String author : authors) {
+                out.write(author.getBytes(StandardCharsets.UTF_8));
+            }
+            for (Tweet tweet : tweets) {
+                out.write(tweet.getText().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    // length of s.getBytes(UTF_8), which encodes an unpaired surrogate as '?'
+    static int utf8Length(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * @return list view of the stored tweets, in the order they were written.
+     *         Unmodifiable and random-access; each get() builds a new Tweet.
+     */
+    public List<Tweet> tweets() {
+        return view;
+    }
+
+    /**
+     * @return number of stored tweets
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index
+     *            tweet position, in [0, size())
+     * @return id of the tweet at index
+     */
+    public long id(int index) {
+        return ids.getLong(checkIndex(index));
+    }
+
+    /**
+     * @param index
+     *            tweet position, in [0, size())
+     * @return timestamp of the tweet at index
+     */
+    public Instant timestamp(int index) {
+        return Instant.ofEpochSecond(seconds.getLong(checkIndex(index)), nanos.getInt(index));
+    }
+
+    /**
+     * @param index
+     *            tweet position, in [0, size())
+     * @return author of the tweet at index; the same String object for every
+     *         tweet by that author
+     */
+    public String author(int index) {
+        return authors[authorNumbers.getInt(checkIndex(index))];
+    }
+
+    /**
+     * @param index
+     *            tweet position, in [0, size())
+     * @return text of the tweet at index
+     */
+    public String text(int index) {
+        long start = textOffsets.getLong(checkIndex(index));
+        int length = (int) (textOffsets.getLong(index + 1) - start);
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            long offset = start + copied;
+            ByteBuffer chunk = textChunks[(int) (offset / chunkBytes)];
+            int chunkOffset = (int) (offset % chunkBytes);
+            int n = Math.min(length - copied, chunk.limit() - chunkOffset);
+            chunk.get(chunkOffset, bytes, copied, n);
+            copied += n;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " out of [0, " + size + ")");
+        }
+        return index;
+    }
+
+    private final class TweetList extends AbstractList<Tweet> implements RandomAccess {
+        @Override
+        public Tweet get(int index) {
+            return new Tweet(id(index), author(index), text(index), timestamp(index));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TweetStoreTest {
+
+    /*
+     * Testing strategy for TweetStore:
+     * 
+     * Partition as follows:
+     * - tweets: none, one, many with repeated authors
+     * - text: empty, ASCII, multi-byte UTF-8, supplementary characters
+     * - timestamp: whole seconds, with nanoseconds, before the epoch
+     * - file: written by write(), not a tweet store, corrupt header counts
+     * - mapping: one chunk per column, many small chunks with text crossing
+     *   chunk boundaries
+     * Stored tweets are compared field by field, and Filter and Extract are
+     * run over the store's view and over the original list.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final List<Tweet> TWEETS = Arrays.asList(
+            new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1),
+            new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype @Alyssa", d1.plusNanos(123_456_789)),
+            new Tweet(3, "alyssa", "", Instant.parse("1969-12-31T23:59:59.5Z")),
+            new Tweet(-4, "ben", "caf\u00e9 \ud83d\ude00 talk \u4e2d", d1.plusSeconds(3600)));
+
+    private static TweetStore roundTrip(List<Tweet> tweets) throws IOException {
+        Path file = Files.createTempFile("tweets", ".store");
+        try {
+            TweetStore.write(tweets, file);
+            return TweetStore.open(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testRoundTripFields() throws IOException {
+        TweetStore store = roundTrip(TWEETS);
+        List<Tweet> stored = store.tweets();
+        assertEquals("expected size", TWEETS.size(), stored.size());
+        for (int i = 0; i < TWEETS.size(); i++) {
+            Tweet expected = TWEETS.get(i);
+            Tweet actual = stored.get(i);
+            assertEquals("expected id", expected.getId(), actual.getId());
+            assertEquals("expected author", expected.getAuthor(), actual.getAuthor());
+            assertEquals("expected text", expected.getText(), actual.getText());
+            assertEquals("expected timestamp", expected.getTimestamp(), actual.getTimestamp());
+        }
+        assertSame("expected interned authors", store.author(0), store.author(2));
+    }
+
+    @Test
+    public void testEmptyStore() throws IOException {
+        assertTrue("expected no tweets", roundTrip(Collections.emptyList()).tweets().isEmpty());
+    }
+
+    @Test
+    public void testFilterAndExtractOverView() throws IOException {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            tweets.add(TWEETS.get(i % TWEETS.size()));
+        }
+        List<Tweet> stored = roundTrip(tweets).tweets();
+        assertEquals("expected same mentions", Extract.getMentionedUsers(tweets), Extract.getMentionedUsers(stored));
+        assertEquals("expected same start", Extract.getTimespan(tweets).getStart(), Extract.getTimespan(stored).getStart());
+        assertFields(Filter.containing(tweets, Arrays.asList("talk")), Filter.containing(stored, Arrays.asList("talk")));
+        assertFields(Filter.writtenBy(tweets, "ALYSSA"), Filter.writtenBy(stored, "ALYSSA"));
+    }
+
+    private static void assertFields(List<Tweet> expected, List<Tweet> actual) {
+        assertEquals("expected size", expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals("expected id", expected.get(i).getId(), actual.get(i).getId());
+            assertEquals("expected author", expected.get(i).getAuthor(), actual.get(i).getAuthor());
+            assertEquals("expected text", expected.get(i).getText(), actual.get(i).getText());
+            assertEquals("expected timestamp", expected.get(i).getTimestamp(), actual.get(i).getTimestamp());
+        }
+    }
+
+    @Test
+    public void testSmallChunks() throws IOException {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Tweet tweet = TWEETS.get(i % TWEETS.size());
+            tweets.add(new Tweet(i, tweet.getAuthor() + i % 7, tweet.getText() + i, tweet.getTimestamp().plusNanos(i)));
+        }
+        Path file = Files.createTempFile("tweets", ".store");
+        try {
+            TweetStore.write(tweets, file);
+            for (long chunkBytes : new long[] { 8, 24, 64 }) {
+                TweetStore store = TweetStore.open(file, chunkBytes);
+                assertFields(tweets, store.tweets());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testRejectsCorruptHeader() throws IOException {
+        Path file = Files.createTempFile("tweets", ".store");
+        try {
+            // negative tweet count, author count, then author byte count
+            for (int offset : new int[] { 8, 12, 16 }) {
+                TweetStore.write(TWEETS, file);
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.write(ByteBuffer.wrap(new byte[] { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF }), offset);
+                }
+                try {
+                    TweetStore.open(file);
+                    fail("expected IOException for corrupt header at " + offset);
+                } catch (IOException e) {
+                    // expected
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsOtherFiles() throws IOException {
+        Path file = Files.createTempFile("tweets", ".txt");
+        try {
+            Files.write(file, new byte[64]);
+            TweetStore.open(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
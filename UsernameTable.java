@@ -0,0 +1,251 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * UsernameTable interns case-folded usernames and numbers them densely from 0.
+ * Two usernames share an id iff they are equal ignoring case, in the sense of
+ * String.equalsIgnoreCase.
+ * 
+ * Usernames are looked up directly from a region of the text they occur in,
+ * so a username that is already present costs no allocation. Only the first
+ * occurrence of each distinct username builds a String.
+ * 
+ * Not safe for use by multiple threads.
+ */
+final class UsernameTable {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // open-addressing table: slots[h] is id + 1, or 0 if empty
+    private int[] slots = new int[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY / 2];
+    private int[] hashes = new int[INITIAL_CAPACITY / 2];
+    private int size = 0;
+
+    /**
+     * Intern a username given as a region of text.
+     * 
+     * @param text
+     *            text containing the username
+     * @param start
+     *            index of the first username character
+     * @param end
+     *            index just past the last username character; end >= start
+     * @return the id of the case-folded username, in [0, size())
+     */
+    int intern(String text, int start, int end) {
+        int hash = hash(text, start, end);
+        int h = probe(hash, text, start, end);
+        int slot = slots[h];
+        return slot != 0 ? slot - 1 : insert(h, hash, folded(text, start, end));
+    }
+
+    /**
+     * Look up a username given as a region of text, without interning it.
+     * 
+     * @param text
+     *            text containing the username
+     * @param start
+     *            index of the first username character
+     * @param end
+     *            index just past the last username character; end >= start
+     * @return the id of the case-folded username, or -1 if it has not been
+     *         interned
+     */
+    int find(String text, int start, int end) {
+        int slot = slots[probe(hash(text, start, end), text, start, end)];
+        return slot - 1;
+    }
+
+    /**
+     * Intern a username given as a region of ASCII bytes, such as a mention
+     * found by MentionScanner in UTF-8 text.
+     * 
+     * @param bytes
+     *            buffer containing the username; read with absolute gets
+     * @param start
+     *            index of the first username byte
+     * @param end
+     *            index just past the last username byte; end >= start, and
+     *            every byte in between is ASCII
+     * @return the id of the case-folded username, in [0, size())
+     */
+    int intern(ByteBuffer bytes, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + fold((char) bytes.get(i));
+        }
+        int mask = slots.length - 1;
+        int h = spread(hash) & mask;
+        for (; slots[h] != 0; h = (h + 1) & mask) {
+            int id = slots[h] - 1;
+            if (hashes[id] == hash && regionEquals(names[id], bytes, start, end)) {
+                return id;
+            }
+        }
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = fold((char) bytes.get(i));
+        }
+        return insert(h, hash, new String(chars));
+    }
+
+    /**
+     * Intern a username.
+     * 
+     * @param username
+     *            a username, any case
+     * @return the id of the case-folded username, in [0, size())
+     */
+    int intern(String username) {
+        return intern(username, 0, username.length());
+    }
+
+    /**
+     * @param id
+     *            a username id, in [0, size())
+     * @return the case-folded username with that id
+     */
+    String username(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("no username with id " + id);
+        }
+        return names[id];
+    }
+
+    /**
+     * @return number of distinct usernames interned so far
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return a new mutable set of all interned usernames
+     */
+    Set<String> toSet() {
+        Set<String> set = new HashSet<>(Math.max(16, size * 2));
+        for (int id = 0; id < size; id++) {
+            set.add(names[id]);
+        }
+        return set;
+    }
+
+    private static int hash(String text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + fold(text.charAt(i));
+        }
+        return hash;
+    }
+
+    // slot holding the username text[start, end), or the empty slot where it belongs
+    private int probe(int hash, String text, int start, int end) {
+        int mask = slots.length - 1;
+        for (int h = spread(hash) & mask; ; h = (h + 1) & mask) {
+            int slot = slots[h];
+            if (slot == 0) {
+                return h;
+            }
+            int id = slot - 1;
+            if (hashes[id] == hash && regionEquals(names[id], text, start, end)) {
+                return h;
+            }
+        }
+    }
+
+    private int insert(int h, int hash, String name) {
+        if (size == names.length) {
+            grow();
+            int mask = slots.length - 1;
+            h = spread(hash) & mask;
+            while (slots[h] != 0) {
+                h = (h + 1) & mask;
+            }
+        }
+        int id = size++;
+        names[id] = name;
+        hashes[id] = hash;
+        slots[h] = id + 1;
+        return id;
+    }
+
+    private void grow() {
+        int capacity = slots.length * 2;
+        int mask = capacity - 1;
+        int[] newSlots = new int[capacity];
+        for (int id = 0; id < size; id++) {
+            int h = spread(hashes[id]) & mask;
+            while (newSlots[h] != 0) {
+                h = (h + 1) & mask;
+            }
+            newSlots[h] = id + 1;
+        }
+        slots = newSlots;
+        names = Arrays.copyOf(names, capacity / 2);
+        hashes = Arrays.copyOf(hashes, capacity / 2);
+    }
+
+    /**
+     * @param c
+     *            a character
+     * @return the case-folded form of c; two characters are equal ignoring
+     *         case iff their folded forms are equal
+     */
+    static char fold(char c) {
+        if (c < 0x80) {
+            return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean regionEquals(String name, String text, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (name.charAt(i - start) != fold(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean regionEquals(String name, ByteBuffer bytes, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (name.charAt(i - start) != fold((char) bytes.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // case-folded copy of text[start, end), a plain substring when it is already folded
+    static String folded(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c != fold(c)) {
+                char[] chars = new char[end - start];
+                for (int j = start; j < end; j++) {
+                    chars[j - start] = fold(text.charAt(j));
+                }
+                return new String(chars);
+            }
+        }
+        return text.substring(start, end);
+    }
+}
@@ -0,0 +1,123 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * VectorScan consists of variants of Filter.containing and
+ * Extract.getMentionedUsers whose character classification and case folding
+ * run on ScanBackend.get(): the Vector API when the jdk.incubator.vector
+ * module is present, and scalar code otherwise. Each method returns what the
+ * corresponding Filter or Extract method returns.
+ * 
+ * Each text is copied into a reusable buffer. For containing, the buffer is
+ * folded and split into word runs a vector at a time, and only the runs are
+ * then walked one character at a time; texts with non-ASCII characters are
+ * matched on their lowercase form instead, since lowercasing can turn them
+ * into ASCII word characters. For getMentionedUsers, the buffer is searched
+ * for "@" a vector at a time, and only the characters around each "@" are
+ * examined.
+ * 
+ * The vector backend is not faster than the scalar one here; see
+ * ScanBenchmark. containing is slower than Filter.containing on either
+ * backend.
+ */
+public class VectorScan {
+
+    private VectorScan() {
+        // static methods only
+    }
+
+    /**
+     * @return name of the backend in use, "scalar" if the Vector API is
+     *         unavailable
+     */
+    public static String backend() {
+        return ScanBackend.get().name();
+    }
+
+    /**
+     * Find tweets that contain certain words.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @param words
+     *            a list of words, as for Filter.containing
+     * @return the sublist of tweets that include at least one of the words,
+     *         in the same order as in the input list, as for Filter.containing
+     */
+    public static List<Tweet> containing(List<Tweet> tweets, List<String> words) {
+        return containing(tweets, words, ScanBackend.get());
+    }
+
+    static List<Tweet> containing(List<Tweet> tweets, List<String> words, ScanBackend backend) {
+        KeywordMatcher matcher = KeywordMatcher.forWords(words);
+        Scratch scratch = new Scratch();
+        List<Tweet> result = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            String text = tweet.getText();
+            char[] chars = scratch.load(text);
+            int count = backend.foldWordRuns(chars, text.length(), scratch.runs);
+            if (count >= 0 ? matcher.matches(chars, text.length(), scratch.runs, count) : matcher.matches(text)) {
+                result.add(tweet);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get usernames mentioned in a list of tweets.
+     * 
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     * @return the set of usernames who are mentioned in the text of the
+     *         tweets, as for Extract.getMentionedUsers
+     */
+    public static Set<String> getMentionedUsers(List<Tweet> tweets) {
+        return getMentionedUsers(tweets, ScanBackend.get());
+    }
+
+    static Set<String> getMentionedUsers(List<Tweet> tweets, ScanBackend backend) {
+        UsernameTable mentionedUsers = new UsernameTable();
+        Scratch scratch = new Scratch();
+        for (Tweet tweet : tweets) {
+            String text = tweet.getText();
+            char[] chars = scratch.load(text);
+            int length = text.length();
+            // a mention is an "@" not after a word character, followed by a run of word characters
+            for (int at = backend.indexOf(chars, 0, length, '@'); at >= 0; at = backend.indexOf(chars, at + 1, length, '@')) {
+                if (at > 0 && MentionScanner.isWordChar(chars[at - 1])) {
+                    continue;
+                }
+                int end = at + 1;
+                while (end < length && MentionScanner.isWordChar(chars[end])) {
+                    end++;
+                }
+                if (end > at + 1) {
+                    mentionedUsers.intern(text, at + 1, end);
+                    at = end - 1;
+                }
+            }
+        }
+        return mentionedUsers.toSet();
+    }
+
+    // per-call buffers, grown to the longest text seen
+    private static final class Scratch {
+        char[] chars = new char[256];
+        int[] runs = new int[257];
+
+        char[] load(String text) {
+            if (text.length() > chars.length) {
+                chars = new char[text.length() * 2];
+                runs = new int[text.length() * 2 + 1];
+            }
+            text.getChars(0, text.length(), chars, 0);
+            return chars;
+        }
+    }
+}
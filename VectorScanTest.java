@@ -0,0 +1,149 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class VectorScanTest {
+
+    /*
+     * Testing strategy for ScanBackend and VectorScan:
+     * 
+     * Partition as follows:
+     * - backend: scalar, ScanBackend.get() (the Vector API backend when run
+     *   with --add-modules jdk.incubator.vector)
+     * - text length: 0, shorter than a vector, several vectors, not a
+     *   multiple of the vector length
+     * - word runs: none, at start, at end, spanning a vector boundary
+     * - characters: just outside the word ranges ('@', '[', '`', '{', '/',
+     *   ':'), non-ASCII, non-ASCII lowercasing to ASCII, >= 0x8000
+     * - indexOf: found in the first vector, a later vector, the tail, not found
+     * Differential: randomized texts compared across backends and against
+     * Filter.containing and Extract.getMentionedUsers.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final char[] ALPHABET = "aZz_09AMm @@@  [`{/:!\u00E9\u0130\u212A\u8000\uFFFF\uD83D".toCharArray();
+    private static final String[] WORDS = { "a", "z_", "m9", "am", "", "\u00E9", "i" };
+
+    private static final List<ScanBackend> BACKENDS = Arrays.asList(ScanBackend.scalar(), ScanBackend.get());
+
+    private static String randomText(Random random) {
+        char[] text = new char[random.nextInt(200)];
+        for (int i = 0; i < text.length; i++) {
+            // mostly word characters, so that runs cross vector boundaries
+            text[i] = random.nextInt(3) > 0 ? ALPHABET[random.nextInt(4)] : ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return new String(text);
+    }
+
+    // word runs of text as Tokenizer finds them, by String.split on \W+
+    private static List<String> expectedRuns(String text) {
+        List<String> runs = new ArrayList<>();
+        for (String run : text.split("\\W+")) {
+            if (!run.isEmpty()) {
+                runs.add(lowerAscii(run));
+            }
+        }
+        return runs;
+    }
+
+    private static String lowerAscii(String s) {
+        StringBuilder builder = new StringBuilder();
+        for (char c : s.toCharArray()) {
+            builder.append(MentionScanner.fold(c));
+        }
+        return builder.toString();
+    }
+
+    // runs found by backend, or null if it reports a non-ASCII character
+    private static List<String> foldWordRuns(ScanBackend backend, String text) {
+        char[] chars = Arrays.copyOf(text.toCharArray(), text.length() + 64);
+        int[] runs = new int[text.length() + 1];
+        int count = backend.foldWordRuns(chars, text.length(), runs);
+        if (count < 0) {
+            return null;
+        }
+        List<String> result = new ArrayList<>();
+        for (int r = 0; r < count; r++) {
+            result.add(new String(chars, runs[2 * r], runs[2 * r + 1] - runs[2 * r]));
+        }
+        return result;
+    }
+
+    @Test
+    public void testBackendName() {
+        assertEquals("scalar", ScanBackend.scalar().name());
+        assertEquals(ScanBackend.get().name(), VectorScan.backend());
+    }
+
+    @Test
+    public void testFoldWordRunsEdges() {
+        for (ScanBackend backend : BACKENDS) {
+            assertEquals(backend.name(), Collections.emptyList(), foldWordRuns(backend, ""));
+            assertEquals(backend.name(), Collections.emptyList(), foldWordRuns(backend, "@[`{/:"));
+            assertEquals(backend.name(), Arrays.asList("talk", "rivest_9"), foldWordRuns(backend, "TALK @Rivest_9!"));
+            assertNull(backend.name(), foldWordRuns(backend, "caf\u00E9"));
+            assertEquals(backend.name(), -1, backend.foldWordRuns("caf\u00E9".toCharArray(), 4, new int[5]));
+            assertEquals(backend.name(), 1, backend.foldWordRuns("caf\u00E9".toCharArray(), 3, new int[5]));
+        }
+    }
+
+    @Test
+    public void testIndexOf() {
+        char[] text = new char[100];
+        Arrays.fill(text, 'a');
+        text[3] = '@';
+        text[70] = '@';
+        for (ScanBackend backend : BACKENDS) {
+            assertEquals(backend.name(), 3, backend.indexOf(text, 0, 100, '@'));
+            assertEquals(backend.name(), 70, backend.indexOf(text, 4, 100, '@'));
+            assertEquals(backend.name(), -1, backend.indexOf(text, 71, 100, '@'));
+            assertEquals(backend.name(), -1, backend.indexOf(text, 4, 70, '@'));
+            assertEquals(backend.name(), -1, backend.indexOf(text, 0, 0, '@'));
+        }
+    }
+
+    @Test
+    public void testRandomizedAcrossBackends() {
+        Random random = new Random(19);
+        for (int trial = 0; trial < 2000; trial++) {
+            String text = randomText(random);
+            List<String> expected = text.chars().allMatch(c -> c < 0x80) ? expectedRuns(text) : null;
+            int at = text.indexOf('@', text.length() / 2);
+            for (ScanBackend backend : BACKENDS) {
+                assertEquals(backend.name() + " " + text, expected, foldWordRuns(backend, text));
+                assertEquals(backend.name() + " " + text, at, backend.indexOf(text.toCharArray(), text.length() / 2, text.length(), '@'));
+            }
+        }
+    }
+
+    @Test
+    public void testRandomizedAgainstFilterAndExtract() {
+        Random random = new Random(20);
+        for (int trial = 0; trial < 50; trial++) {
+            List<Tweet> tweets = new ArrayList<>();
+            for (int id = 0; id < 40; id++) {
+                tweets.add(new Tweet(id, "alyssa", randomText(random), d1));
+            }
+            List<String> words = Arrays.asList(WORDS[random.nextInt(WORDS.length)], WORDS[random.nextInt(WORDS.length)]);
+            for (ScanBackend backend : BACKENDS) {
+                assertEquals(backend.name(), Filter.containing(tweets, words), VectorScan.containing(tweets, words, backend));
+                assertEquals(backend.name(), Extract.getMentionedUsers(tweets), VectorScan.getMentionedUsers(tweets, backend));
+            }
+        }
+        assertEquals(Collections.emptyList(), VectorScan.containing(Collections.emptyList(), Arrays.asList("a")));
+        assertEquals(Collections.emptySet(), VectorScan.getMentionedUsers(Collections.emptyList()));
+    }
+}
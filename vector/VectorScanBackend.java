@@ -0,0 +1,114 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * VectorScanBackend classifies and case-folds a vector of characters at a
+ * time with the incubating Vector API.
+ * 
+ * Compiling and loading this class requires
+ * --add-modules jdk.incubator.vector, so it lives in its own source root,
+ * vector/, which the default build does not compile. Nothing refers to it by
+ * name except ScanBackend.get(), which loads it reflectively and falls back
+ * to ScanBackend.scalar() when it is absent or cannot be loaded.
+ * 
+ * Each block of characters yields a bit mask of its word characters; the
+ * run boundaries are the bits where the mask differs from itself shifted by
+ * one lane, so runs are found without testing characters one at a time.
+ */
+final class VectorScanBackend extends ScanBackend {
+
+    // at most 64 lanes, so that a block's mask fits in a long
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED.length() <= 64
+            ? ShortVector.SPECIES_PREFERRED : ShortVector.SPECIES_512;
+    private static final int LANES = SPECIES.length();
+    private static final long LANE_BITS = LANES == 64 ? -1L : (1L << LANES) - 1;
+
+    /**
+     * Make a vector backend.
+     * 
+     * @throws UnsupportedOperationException
+     *             if the platform has no vector shape wider than one lane
+     */
+    VectorScanBackend() {
+        if (LANES < 2) {
+            throw new UnsupportedOperationException("no vector shape available");
+        }
+    }
+
+    @Override
+    String name() {
+        return "vector" + LANES * Short.SIZE;
+    }
+
+    @Override
+    int indexOf(char[] text, int from, int length, char c) {
+        int i = from;
+        for (; i <= length - LANES; i += LANES) {
+            VectorMask<Short> found = ShortVector.fromCharArray(SPECIES, text, i).compare(VectorOperators.EQ, (short) c);
+            if (found.anyTrue()) {
+                return i + found.firstTrue();
+            }
+        }
+        for (; i < length; i++) {
+            if (text[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    int foldWordRuns(char[] text, int length, int[] runs) {
+        int count = 0;
+        long previous = 0; // 1 iff the character before the block is a word character
+        for (int i = 0; i < length; i += LANES) {
+            VectorMask<Short> inRange = SPECIES.indexInRange(i, length);
+            ShortVector v = ShortVector.fromCharArray(SPECIES, text, i, inRange);
+            if (v.lanewise(VectorOperators.AND, (short) 0xFF80).compare(VectorOperators.NE, (short) 0).anyTrue()) {
+                return -1;
+            }
+
+            ShortVector lower = v.lanewise(VectorOperators.OR, (short) 0x20);
+            ShortVector letterOffset = lower.sub((short) 'a');
+            VectorMask<Short> letter = letterOffset.compare(VectorOperators.GE, (short) 0)
+                    .and(letterOffset.compare(VectorOperators.LT, (short) 26));
+            ShortVector digitOffset = v.sub((short) '0');
+            VectorMask<Short> digit = digitOffset.compare(VectorOperators.GE, (short) 0)
+                    .and(digitOffset.compare(VectorOperators.LT, (short) 10));
+            VectorMask<Short> word = letter.or(digit).or(v.compare(VectorOperators.EQ, (short) '_'));
+
+            v.blend(lower, letter).intoCharArray(text, i, inRange);
+
+            // lanes past length load as 0, a non-word character, so a run open at the end closes at length
+            long bits = word.toLong();
+            long edges = (bits ^ ((bits << 1) | previous)) & LANE_BITS;
+            while (edges != 0) {
+                int lane = Long.numberOfTrailingZeros(edges);
+                if (i + lane > length) {
+                    break;
+                }
+                if ((bits & (1L << lane)) != 0) {
+                    runs[2 * count] = i + lane;
+                } else {
+                    runs[2 * count + 1] = i + lane;
+                    count++;
+                }
+                edges &= edges - 1;
+            }
+            previous = (bits >>> (LANES - 1)) & 1;
+        }
+        if (previous != 0 && length % LANES == 0) {
+            // the last block was full and ended inside a run
+            runs[2 * count + 1] = length;
+            count++;
+        }
+        return count;
+    }
+}